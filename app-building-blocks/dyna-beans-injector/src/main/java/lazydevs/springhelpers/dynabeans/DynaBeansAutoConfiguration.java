@@ -46,9 +46,9 @@ public class DynaBeansAutoConfiguration {
     public String dynaBeansGenerator(DynaBeansConfig dynaBeansConfig) throws IOException {
         log.info(readInputStreamAsString(applicationContext.getResource(dynabeansBannerPath).getInputStream()));
         for (ScriptEngines value : ScriptEngines.values()) {
-            if(null != value.getScriptEngine()){
-                log.info("Putting applicationContext in scriptEngine = {} {}", value, value.getScriptEngine());
-                value.getScriptEngine().put("applicationContext", applicationContext);
+            if(value.isAvailable()){
+                log.info("Putting applicationContext in scriptEngine = {}", value);
+                value.put("applicationContext", applicationContext);
             }
         }
         initializeAndInject(dynaBeansConfig);
@@ -4,10 +4,18 @@ import freemarker.template.DefaultListAdapter;
 import freemarker.template.DefaultMapAdapter;
 import freemarker.template.TemplateMethodModelEx;
 import lazydevs.mapper.utils.BatchIterator;
+import lazydevs.mapper.utils.InterningBatchIterator;
+import lazydevs.mapper.utils.MergingBatchIterator;
+import lazydevs.mapper.utils.PrefetchingBatchIterator;
 import lazydevs.mapper.utils.SerDe;
+import lazydevs.mapper.utils.StringDictionary;
 import lazydevs.mapper.utils.engine.ScriptEngines;
 import lazydevs.mapper.utils.engine.TemplateEngine;
 import lazydevs.persistence.reader.GeneralReader;
+import lazydevs.persistence.util.ConditionEvaluator;
+import lazydevs.persistence.writer.general.BulkGeneralUpdater;
+import lazydevs.persistence.writer.general.BulkOperation;
+import lazydevs.persistence.writer.general.BulkResult;
 import lazydevs.persistence.writer.general.GeneralAppender;
 import lazydevs.persistence.writer.general.GeneralUpdater;
 import lazydevs.scheduleit.ScheduleItService;
@@ -121,10 +129,9 @@ public class TransportService {
     private Object getInstruction(String instructionStr, Class<?> instructionType, SerDe serDe){
         Object instruction = instructionStr;
         if(null != instruction) {
-            instruction = TemplateEngine.getInstance().generate(instructionStr, getCurrentContext());
             instruction = String.class.equals(instructionType)
-                    ? instruction
-                    : serDe.deserialize(instruction.toString(), instructionType);
+                    ? TemplateEngine.getInstance().generate(instructionStr, getCurrentContext())
+                    : TemplateEngine.getInstance().generate(instructionStr, getCurrentContext(), serDe, instructionType);
         }
         return instruction;
     }
@@ -140,6 +147,7 @@ public class TransportService {
         private Object writeInstruction;
         boolean isAppenderOnly;
         Actions writeAction;
+        private String actionField;
         boolean enabled = true;
         private Flow.Writer onSuccess;
         private Flow.Writer onFailure;
@@ -256,6 +264,7 @@ public class TransportService {
         writerAttributes.setWriteInstruction(writeInstruction);
         writerAttributes.setEnabled(writerObj.isEnabled());
         writerAttributes.setWriteAction(writerObj.getAction() != null ? writerObj.getAction() : Actions.CREATE);
+        writerAttributes.setActionField(writerObj.getActionField());
         writerAttributes.setOnSuccess(writerObj.getOnSuccess());
         writerAttributes.setOnFailure(writerObj.getOnFailure());
         writerAttributes.setId(writerObj.getId());
@@ -267,7 +276,11 @@ public class TransportService {
         if (Modes.BATCHED.equals(flow.getReader().getMode())) {
             readAndWriteInBatches(flow, reader, readInstruction, writerAttributesList);
         } else if (Modes.ALL_AT_ONCE.equals(flow.getReader().getMode())) {
-            List<Map<String, Object>> transformedRows = transform(flow, reader.findAll(readInstruction));
+            List<Map<String, Object>> rows = reader.findAll(readInstruction);
+            if (flow.getReader().isInternStrings()) {
+                new StringDictionary().intern(rows);
+            }
+            List<Map<String, Object>> transformedRows = transform(flow, rows);
             setVariableToFlowContext(flow.getReader().getWriteToVariableName(), transformedRows);
             writerAttributesList.forEach(writerAttributes -> {
                    write(transformedRows, writerAttributes);
@@ -294,12 +307,23 @@ public class TransportService {
     private void readAndWriteInBatches(Flow flow, GeneralReader reader, Object readInstruction,List<WriterAttributes> writerAttributesList) {
         int batchCounter = 1;
 
-        try (BatchIterator<Map<String, Object>> batchIterator = reader.findAllInBatch(flow.getReader().getBatchSize(), readInstruction)) {
-            while (batchIterator.hasNext()) {
+        BatchIterator<Map<String, Object>> batchIterator = flow.getReader().getPartitions() > 1
+                ? new MergingBatchIterator<>(reader.findAllPartitioned(flow.getReader().getPartitions(), flow.getReader().getBatchSize(), readInstruction, new HashMap<>()))
+                : reader.findAllInBatch(flow.getReader().getBatchSize(), readInstruction);
+        if (flow.getReader().isInternStrings()) {
+            batchIterator = new InterningBatchIterator<>(batchIterator);
+        }
+        if (flow.getReader().getPrefetchBatches() > 0) {
+            // wraps the interning as well, so that it runs on the reading thread
+            batchIterator = new PrefetchingBatchIterator<>(batchIterator, flow.getReader().getPrefetchBatches());
+        }
+        List<Map<String, Object>> spare = null;
+        try (BatchIterator<Map<String, Object>> batches = batchIterator) {
+            while (batches.hasNext()) {
                 getCurrentContext().set(BATCH_INDEX, batchCounter);
                 getCurrentContext().set("batchSize", flow.getReader().getBatchSize());
                 log.info("Processing Batch : index={}, size={}", batchCounter, flow.getReader().getBatchSize());
-                List<Map<String, Object>> batch = batchIterator.next();
+                List<Map<String, Object>> batch = null == spare ? batches.next() : batches.next(spare);
                 if(!batch.isEmpty()) {
                     List<Map<String, Object>> transformedAndFilterBatch = transform(flow, batch);
                     if(transformedAndFilterBatch.isEmpty()){
@@ -310,6 +334,9 @@ public class TransportService {
                 }else{
                     log.info("Empty Batch Read: index={}, size={}", batchCounter, flow.getReader().getBatchSize());
                 }
+                if (flow.getReader().isRecycleBatches()) {
+                    spare = batch;
+                }
                 batchCounter++;
             }
         }
@@ -334,6 +361,9 @@ public class TransportService {
         rows.forEach(row-> insertIntoMap(row));
         Map<String, Object> datapoints = new HashMap<>(getCurrentContext());
         rows.stream().forEach(row->row.putAll(datapoints));
+        if(null != flow.getReader().getFilter()){
+            rows = ConditionEvaluator.filter(flow.getReader().compiledFilter(), rows);
+        }
         List<Map<String, Object>> transformedRows = rows;
         if(null != flow.getReader().getTransformer()){
             if(flow.getReader().isTransformAndMergeToOriginal()) {
@@ -371,6 +401,10 @@ public class TransportService {
             log.info("Nothing to Write, list is empty");
             return;
         }
+        if(null != writerAttributes.getActionField()){
+            bulkWrite(list, writerAttributes);
+            return;
+        }
         GeneralAppender appender = (GeneralAppender)writer;
         if(Actions.CREATE.equals(action)){
             consumeBatch(list, (batch)-> appender.create(batch, writeInstruction), writerAttributes);
@@ -410,14 +444,71 @@ public class TransportService {
                     failedRecords.add(row);
                 }
             });
-            if(!failedRecords.isEmpty()){
-                if(writerAttributes.onFailure != null){
-                    log.error("**** [Exception-Handling] Handling onFailure instructions, failedWriterId = {}, onFailureHandledId = {}", writerAttributes.getId(), writerAttributes.getOnFailure().getId());
-                    write(failedRecords, getWriterAttributes(writerAttributes.onFailure));
+            handleFailedRecords(failedRecords, writerAttributes);
+        }
+    }
+
+    private void bulkWrite(List<Map<String, Object>> list, WriterAttributes writerAttributes){
+        if(writerAttributes.isAppenderOnly){
+            throw new IllegalArgumentException("writer provider is not an updater, cant execute a bulk write with an actionField");
+        }
+        GeneralUpdater updater = (GeneralUpdater)writerAttributes.getWriter();
+        List<Map<String, Object>> failedRecords = new ArrayList<>();
+        List<Map<String, Object>> pending = list;
+        // the bulk write stops at the first failure, the records after it are written again with the next one
+        while (!pending.isEmpty()){
+            List<Map<String, Object>> rows = new ArrayList<>();
+            List<BulkOperation<Object>> operations = new ArrayList<>();
+            for(Map<String, Object> row : pending){
+                try {
+                    operations.add(getBulkOperation(row, writerAttributes));
+                    rows.add(row);
+                }catch (IllegalArgumentException e){
+                    log.error("Invalid action for the record = {}", row, e);
+                    failedRecords.add(row);
                 }
-                handleFailedRecords(failedRecords);
             }
+            List<Map<String, Object>> notExecuted = new ArrayList<>();
+            BulkResult bulkResult = BulkGeneralUpdater.write(updater, operations);
+            if(null != bulkResult.getUnmatched() && bulkResult.getUnmatched() > 0){
+                log.warn("{} of the {} records of the bulk write matched no existing record", bulkResult.getUnmatched(), operations.size());
+            }
+            for(BulkResult.RowResult result : bulkResult.getFailures()){
+                Map<String, Object> row = rows.get(result.getIndex());
+                if(BulkResult.Status.FAILED.equals(result.getStatus())){
+                    log.error("Error while saving the record = {}", row, result.getError());
+                    failedRecords.add(row);
+                }else{
+                    notExecuted.add(row);
+                }
+            }
+            if(!notExecuted.isEmpty() && notExecuted.size() == operations.size()){
+                log.error("None of the {} records of the bulk write were executed", notExecuted.size());
+                failedRecords.addAll(notExecuted);
+                break;
+            }
+            pending = notExecuted;
+        }
+        handleFailedRecords(failedRecords, writerAttributes);
+    }
+
+    private BulkOperation<Object> getBulkOperation(Map<String, Object> row, WriterAttributes writerAttributes){
+        Object action = row.get(writerAttributes.getActionField());
+        Map<String, Object> record = new LinkedHashMap<>(row);
+        record.remove(writerAttributes.getActionField());
+        BulkOperation.Action bulkAction = null == action ? BulkOperation.Action.valueOf(writerAttributes.getWriteAction().name()) : BulkOperation.Action.valueOf(String.valueOf(action).trim().toUpperCase());
+        return BulkOperation.of(bulkAction, record, writerAttributes.getWriteInstruction());
+    }
+
+    private void handleFailedRecords(List<Map<String, Object>> failedRecords, WriterAttributes writerAttributes) {
+        if(failedRecords.isEmpty()){
+            return;
+        }
+        if(writerAttributes.onFailure != null){
+            log.error("**** [Exception-Handling] Handling onFailure instructions, failedWriterId = {}, onFailureHandledId = {}", writerAttributes.getId(), writerAttributes.getOnFailure().getId());
+            write(failedRecords, getWriterAttributes(writerAttributes.onFailure));
         }
+        handleFailedRecords(failedRecords);
     }
 
     private void handleFailedRecords(List<Map<String, Object>> failedRecords) {
@@ -2,8 +2,11 @@ package lazydevs.transporter.config;
 
 import lazydevs.mapper.utils.SerDe;
 import lazydevs.persistence.reader.GeneralTransformer;
+import lazydevs.persistence.util.ConditionEvaluator.ConditionRequest;
+import lazydevs.persistence.util.Memo;
 import lazydevs.transporter.enums.Actions;
 import lazydevs.transporter.enums.Modes;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -11,6 +14,7 @@ import lombok.ToString;
 
 import java.util.List;
 import java.util.Map;
+import java.util.function.Predicate;
 
 /**
  * @author Abhijeet Rai
@@ -41,14 +45,33 @@ public class Flow {
         private SerDe instructionSerDe = SerDe.JSON;
         private String writeToVariableName;
         private String enrichmentOrFilterFunction;
+        // rows that don't match are dropped before the transformer runs
+        private ConditionRequest filter;
+        // shares repeated String values per column, see StringDictionary
+        private boolean internStrings = false;
+        // batches read ahead while the current one is written, 0 reads each batch when it is needed
+        private int prefetchBatches = 0;
+        // reads each batch into the list of the previous one; only for writers that don't keep the list after writing it
+        private boolean recycleBatches = false;
+        // parts of the result read in parallel (for readers that can split it), their batches are written as they arrive
+        private int partitions = 1;
         private String id = "";
         private String desc = "";
+        @Getter(AccessLevel.NONE)
+        private final transient Memo<ConditionRequest, Predicate<Map<String, Object>>> compiledFilter = new Memo<>(ConditionRequest::compile);
+
+        // the filter compiled once, not for every batch
+        public Predicate<Map<String, Object>> compiledFilter() {
+            return compiledFilter.get(filter);
+        }
     }
     @Getter @Setter
     public  static class Writer
     {
         private String beanName;
         private Actions action = Actions.CREATE;
+        // when set, each record's own action is read from this field (CREATE, UPDATE, REPLACE, CREATE_OR_REPLACE or DELETE), and a batch is written as one bulk write
+        private String actionField;
         private  String writeInstruction;
         private SerDe instructionSerDe = SerDe.JSON;
         private boolean enabled = true;
@@ -0,0 +1,41 @@
+package lazydevs.persistence.reader;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+
+/**
+ * The non-blocking counterpart of {@link GeneralReader}: every read returns right away, the result is completed, or
+ * published, once it is read.
+ *
+ * @author Abhijeet Rai
+ */
+public interface AsyncGeneralReader<Q, P> {
+
+    CompletableFuture<Map<String, Object>> findOne(Q query, Map<String, P> params);
+
+    CompletableFuture<List<Map<String, Object>>> findAll(Q query, Map<String, P> params);
+
+    CompletableFuture<Page<Map<String, Object>>> findPage(Page.PageRequest pageRequest, Q query, Map<String, P> params);
+
+    /**
+     * The batches of the result, read only as far as the subscriber has requested. Every subscriber runs the query
+     * again; cancelling the subscription closes what is open for it.
+     */
+    Flow.Publisher<List<Map<String, Object>>> findAllInBatch(int batchSize, Q query, Map<String, P> params);
+
+    CompletableFuture<List<Map<String, Object>>> distinct(Q query, Map<String, P> params);
+
+    CompletableFuture<Long> count(Q query, Map<String, P> params);
+
+    Class<Q> getQueryType();
+
+    /**
+     * Runs the blocking {@code reader} on virtual threads.
+     * @see VirtualThreadGeneralReader
+     */
+    static <Q, P> AsyncGeneralReader<Q, P> onVirtualThreads(GeneralReader<Q, P> reader) {
+        return new VirtualThreadGeneralReader<>(reader);
+    }
+}
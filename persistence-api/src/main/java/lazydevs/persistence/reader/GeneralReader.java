@@ -2,6 +2,7 @@ package lazydevs.persistence.reader;
 
 
 import lazydevs.mapper.utils.BatchIterator;
+import lazydevs.mapper.utils.PrefetchingBatchIterator;
 import lazydevs.mapper.utils.SerDe;
 import lazydevs.mapper.utils.engine.TemplateEngine;
 import lombok.Builder;
@@ -9,6 +10,7 @@ import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -49,4 +51,22 @@ public interface GeneralReader<Q, P> extends EntityReader<Map<String, Object>, Q
         return new TransformedBatchIterator(findAllInBatch(batchSize, query, params), generalTransformer);
     }
 
+    /**
+     * Same as {@link #findAllInBatch(int, Object, Map)}, with up to {@code batchesAhead} batches read ahead on another thread.
+     * @see PrefetchingBatchIterator
+     */
+    default BatchIterator<Map<String, Object>> findAllInBatch(int batchSize, Q query, Map<String, P> params, int batchesAhead){
+        return new PrefetchingBatchIterator<>(findAllInBatch(batchSize, query, params), batchesAhead);
+    }
+
+    /**
+     * The result of {@link #findAllInBatch(int, Object, Map)} split into up to {@code partitions} parts that can be read
+     * independently, each on its own thread and with its own connection or cursor. Together they hold every row once,
+     * in no particular order across the parts. Each iterator has to be closed.
+     * <br>The default does not split, it returns the one iterator of {@link #findAllInBatch(int, Object, Map)}.
+     */
+    default List<BatchIterator<Map<String, Object>>> findAllPartitioned(int partitions, int batchSize, Q query, Map<String, P> params){
+        return Collections.singletonList(findAllInBatch(batchSize, query, params));
+    }
+
 }
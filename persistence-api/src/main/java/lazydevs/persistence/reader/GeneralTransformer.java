@@ -1,16 +1,17 @@
 package lazydevs.persistence.reader;
 
-import lazydevs.mapper.utils.SerDe;
 import lazydevs.mapper.utils.engine.TemplateEngine;
 import lazydevs.mapper.utils.reflection.Init;
 import lazydevs.mapper.utils.reflection.InitDTO;
 import lazydevs.mapper.utils.reflection.ReflectionUtils;
+import lombok.AccessLevel;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
 import lombok.ToString;
 
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -23,41 +24,89 @@ import static lazydevs.mapper.utils.engine.ScriptEngines.JAVASCRIPT;
 @Getter @Setter @ToString
 public class GeneralTransformer {
     private String template;
+    private String templateEngine;
     private String transformerFqcn;
     private String jsFunctionName;
     private boolean transformAllAtOnce;
     private boolean transformAndMergeToOriginal;
+    // the template prefixed with the engine header, so rows don't pay for the concatenation
+    @Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE) @ToString.Exclude
+    private transient String engineTemplate;
+
+    public void setTemplate(String template) {
+        this.template = template;
+        this.engineTemplate = null == template ? null : TemplateEngine.withEngine(templateEngine, template);
+    }
+
+    public void setTemplateEngine(String templateEngine) {
+        this.templateEngine = templateEngine;
+        setTemplate(template);
+    }
 
     public List<Map<String, Object>> convert(List<Map<String, Object>> list) {
         if (transformAllAtOnce) {
             if (null != template) {
                 Map<String, Object> map = new HashMap<>();
                 map.put("list", list);
-                return SerDe.JSON.deserializeToListOfMap(TemplateEngine.getInstance().generate(getTemplate(), map));
+                return TemplateEngine.getInstance().generateToListOfMap(engineTemplate, map);
             } else if (null != getJsFunctionName()) {
                 return (List<Map<String, Object>>) JAVASCRIPT.invokeFunction(getJsFunctionName(), list);
             } else
                 return list;
         }
+        // a function of one row, called for each row on one script context; transformAllAtOnce hands it the whole list
+        if (null == template && null != getJsFunctionName()) {
+            if (!isTransformAndMergeToOriginal()) {
+                return (List) JAVASCRIPT.invokeFunctionInOneContext(getJsFunctionName(), list);
+            }
+            List<Map<String, Object>> merged = list.stream().map(LinkedHashMap::new).collect(Collectors.toList());
+            List<Map<String, Object>> copies = list.stream().map(GeneralTransformer::copyContainers).collect(Collectors.toList());
+            List<Object> transformed = JAVASCRIPT.invokeFunctionInOneContext(getJsFunctionName(), copies);
+            for (int i = 0; i < list.size(); i++) {
+                merge(merged.get(i), (Map<String, Object>) transformed.get(i));
+            }
+            return merged;
+        }
         return list.stream().map(row -> convert(row)).collect(Collectors.toList());
     }
 
     public Map<String, Object> convert(Map<String, Object> row)
     {
         if (isTransformAndMergeToOriginal()) {
-            String originalAsStr = SerDe.JSON.serialize(row);
-            Map<String, Object> transformed = convertLocal(row);
-            Map<String, Object> original = SerDe.JSON.deserializeToMap(originalAsStr);
-            original.putAll(transformed);
-            return original;
+            // a script or a transformer may change the row and the maps and lists in it, so it gets a copy of them
+            Map<String, Object> original = new LinkedHashMap<>(row);
+            return merge(original, convertLocal(null == template ? copyContainers(row) : row));
         }
             return convertLocal(row);
     }
 
+    // copies the maps and lists at any depth, the values in them are shared
+    private static Map<String, Object> copyContainers(Map<String, Object> map) {
+        Map<String, Object> copy = new LinkedHashMap<>();
+        map.forEach((key, value) -> copy.put(key, copyContainer(value)));
+        return copy;
+    }
+
+    private static Object copyContainer(Object value) {
+        if (value instanceof Map) {
+            return copyContainers((Map<String, Object>) value);
+        } else if (value instanceof List) {
+            return ((List<Object>) value).stream().map(GeneralTransformer::copyContainer).collect(Collectors.toList());
+        }
+        return value;
+    }
+
+    private static Map<String, Object> merge(Map<String, Object> original, Map<String, Object> transformed) {
+        if (null != transformed) {
+            original.putAll(transformed);
+        }
+        return original;
+    }
+
     private Map<String, Object> convertLocal(Map<String, Object> row) {
 
         if (null != template) {
-            return SerDe.JSON.deserializeToMap(TemplateEngine.getInstance().generate(getTemplate(), row));
+            return TemplateEngine.getInstance().generateToMap(engineTemplate, row);
         } else if (null != getJsFunctionName()) {
             return (Map<String, Object>) JAVASCRIPT.invokeFunction(getJsFunctionName(), row);
         }else if(transformerFqcn != null){
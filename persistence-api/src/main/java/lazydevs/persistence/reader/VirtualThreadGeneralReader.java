@@ -0,0 +1,102 @@
+package lazydevs.persistence.reader;
+
+import lazydevs.mapper.utils.BatchIterator;
+import lazydevs.mapper.utils.BatchIterators;
+import lazydevs.persistence.connection.multitenant.TenantContext;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
+
+/**
+ * Runs a blocking {@link GeneralReader} asynchronously, each read on a virtual thread of its own by default, so that
+ * thousands of reads can wait on I/O at the same time without a pool to size. The connection pool of the reader still
+ * bounds how many of them actually hit the store at once.
+ * <p>
+ * The tenant of the calling thread is set on the thread that reads. A publisher of {@link #findAllInBatch} opens the
+ * batch iterator when subscribed to, and reads each requested batch as a task of its own, one at a time.
+ *
+ * @author Abhijeet Rai
+ */
+public class VirtualThreadGeneralReader<Q, P> implements AsyncGeneralReader<Q, P> {
+    private static final ThreadFactory THREAD_FACTORY = Thread.ofVirtual().name("general-reader-", 1).factory();
+
+    @Getter private final GeneralReader<Q, P> reader;
+    private final Executor executor;
+
+    public VirtualThreadGeneralReader(GeneralReader<Q, P> reader) {
+        this(reader, task -> THREAD_FACTORY.newThread(task).start());
+    }
+
+    /**
+     * @param executor runs the reads instead of new virtual threads
+     */
+    public VirtualThreadGeneralReader(@NonNull GeneralReader<Q, P> reader, @NonNull Executor executor) {
+        this.reader = reader;
+        this.executor = executor;
+    }
+
+    private <T> CompletableFuture<T> async(Supplier<T> read) {
+        return CompletableFuture.supplyAsync(read, TenantContext.propagating(executor));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> findOne(Q query, Map<String, P> params) {
+        return async(() -> reader.findOne(query, params));
+    }
+
+    @Override
+    public CompletableFuture<List<Map<String, Object>>> findAll(Q query, Map<String, P> params) {
+        return async(() -> reader.findAll(query, params));
+    }
+
+    @Override
+    public CompletableFuture<Page<Map<String, Object>>> findPage(Page.PageRequest pageRequest, Q query, Map<String, P> params) {
+        return async(() -> reader.findPage(pageRequest, query, params));
+    }
+
+    @Override
+    public Flow.Publisher<List<Map<String, Object>>> findAllInBatch(int batchSize, Q query, Map<String, P> params) {
+        Executor executor = TenantContext.propagating(this.executor);
+        return subscriber -> executor.execute(() -> {
+            BatchIterator<Map<String, Object>> batchIterator;
+            try {
+                batchIterator = reader.findAllInBatch(batchSize, query, params);
+            } catch (Throwable e) {
+                subscriber.onSubscribe(new Flow.Subscription() {
+                    @Override
+                    public void request(long n) {
+                    }
+
+                    @Override
+                    public void cancel() {
+                    }
+                });
+                subscriber.onError(e);
+                return;
+            }
+            BatchIterators.publisher(batchIterator, executor).subscribe(subscriber);
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<Map<String, Object>>> distinct(Q query, Map<String, P> params) {
+        return async(() -> reader.distinct(query, params));
+    }
+
+    @Override
+    public CompletableFuture<Long> count(Q query, Map<String, P> params) {
+        return async(() -> reader.count(query, params));
+    }
+
+    @Override
+    public Class<Q> getQueryType() {
+        return reader.getQueryType();
+    }
+}
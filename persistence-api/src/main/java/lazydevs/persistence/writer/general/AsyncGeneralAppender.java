@@ -5,11 +5,13 @@ import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
 /**
+ * Returns right away from {@code create}, the records are written in batches on background threads.
+ * @see GeneralQueueGuzzler
  * @author Abhijeet Rai
  */
-public class AsyncGeneralAppender<WI> implements GeneralAppender<WI> {
+public class AsyncGeneralAppender<WI> implements GeneralAppender<WI>, AutoCloseable {
 
-    private final GeneralQueueGuzzler queueGuzzler;
+    private final GeneralQueueGuzzler<WI> queueGuzzler;
 
     public AsyncGeneralAppender(GeneralAppender<WI> appender){
         queueGuzzler = new GeneralQueueGuzzler<WI>(appender);
@@ -19,6 +21,10 @@ public class AsyncGeneralAppender<WI> implements GeneralAppender<WI> {
         this.queueGuzzler = new GeneralQueueGuzzler<WI>(appender, noOfProcessingThreads, initialDelay, delay, timeUnit);
     }
 
+    public AsyncGeneralAppender(GeneralAppender<WI> appender, GeneralQueueGuzzler.Settings settings) {
+        this.queueGuzzler = new GeneralQueueGuzzler<WI>(appender, settings);
+    }
+
     @Override
     public Map<String, Object> create(Map<String, Object> t, WI wi) {
         this.queueGuzzler.add(t, wi);
@@ -35,4 +41,16 @@ public class AsyncGeneralAppender<WI> implements GeneralAppender<WI> {
     public Class<WI> getWriteInstructionType() {
         return this.queueGuzzler.getAppender().getWriteInstructionType();
     }
+
+    /**
+     * @see GeneralQueueGuzzler#flush(long, TimeUnit)
+     */
+    public boolean flush(long timeout, TimeUnit timeUnit) throws InterruptedException {
+        return this.queueGuzzler.flush(timeout, timeUnit);
+    }
+
+    @Override
+    public void close() {
+        this.queueGuzzler.close();
+    }
 }
@@ -0,0 +1,50 @@
+package lazydevs.persistence.writer.general;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * The non-blocking counterpart of {@link GeneralUpdater}: every write returns right away, the future is completed with
+ * what the write returns once it is done.
+ * <br>Not to be confused with {@link AsyncGeneralAppender}, which queues the records and does not report back.
+ */
+//WI stands for WriteInstruction
+public interface AsyncGeneralUpdater<Q, WI> {
+
+    CompletableFuture<Map<String, Object>> create(Map<String, Object> t, WI wi);
+
+    CompletableFuture<List<Map<String, Object>>> create(List<Map<String, Object>> iterable, WI wi);
+
+    CompletableFuture<Map<String, Object>> replace(Map<String, Object> t, WI wi);
+
+    CompletableFuture<List<Map<String, Object>>> replace(List<Map<String, Object>> iterable, WI wi);
+
+    CompletableFuture<Map<String, Object>> update(Map<String, Object> t, WI wi);
+
+    CompletableFuture<List<Map<String, Object>>> update(List<Map<String, Object>> iterable, WI wi);
+
+    CompletableFuture<Map<String, Object>> createOrReplace(Map<String, Object> t, WI wi);
+
+    CompletableFuture<List<Map<String, Object>>> createOrReplace(List<Map<String, Object>> iterable, WI wi);
+
+    CompletableFuture<Map<String, Object>> updateOne(String id, Map<String, Object> fieldsToUpdate, WI wi);
+
+    CompletableFuture<Long> updateMany(Q query, Map<String, Object> fieldsToUpdate, WI wi);
+
+    CompletableFuture<Map<String, Object>> delete(Map<String, Object> t, WI wi);
+
+    CompletableFuture<Map<String, Object>> delete(String id, WI wi);
+
+    CompletableFuture<List<Map<String, Object>>> delete(List<Map<String, Object>> iterable, WI wi);
+
+    Class<WI> getWriteInstructionType();
+
+    /**
+     * Runs the blocking {@code updater} on virtual threads.
+     * @see VirtualThreadGeneralUpdater
+     */
+    static <Q, WI> AsyncGeneralUpdater<Q, WI> onVirtualThreads(GeneralUpdater<Q, WI> updater) {
+        return new VirtualThreadGeneralUpdater<>(updater);
+    }
+}
@@ -0,0 +1,77 @@
+package lazydevs.persistence.writer.general;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link GeneralUpdater} that can write a list of operations of any mix of actions in one go, a round trip per batch
+ * instead of one per record. The list methods are bulk writes of a single action, and throw a
+ * {@link BulkWriteException} if a record was not written.
+ * <p>
+ * The operations are done in their order, and stop at the first failure: the ones after it are reported as
+ * {@link BulkResult.Status#NOT_EXECUTED}. How many are written at once, and whether they are written together or not
+ * at all, depends on the store.
+ */
+//WI stands for WriteInstruction
+public interface BulkGeneralUpdater<Q, WI> extends GeneralUpdater<Q, WI> {
+
+    BulkResult bulkWrite(List<BulkOperation<WI>> operations);
+
+    @Override
+    default List<Map<String, Object>> create(List<Map<String, Object>> iterable, WI wi) {
+        return bulkWrite(iterable, wi, BulkOperation::create);
+    }
+
+    @Override
+    default List<Map<String, Object>> replace(List<Map<String, Object>> iterable, WI wi) {
+        return bulkWrite(iterable, wi, BulkOperation::replace);
+    }
+
+    @Override
+    default List<Map<String, Object>> update(List<Map<String, Object>> iterable, WI wi) {
+        return bulkWrite(iterable, wi, BulkOperation::update);
+    }
+
+    @Override
+    default List<Map<String, Object>> createOrReplace(List<Map<String, Object>> iterable, WI wi) {
+        return bulkWrite(iterable, wi, BulkOperation::createOrReplace);
+    }
+
+    @Override
+    default List<Map<String, Object>> delete(List<Map<String, Object>> iterable, WI wi) {
+        return bulkWrite(iterable, wi, BulkOperation::delete);
+    }
+
+    private List<Map<String, Object>> bulkWrite(List<Map<String, Object>> iterable, WI wi, BiFunction<Map<String, Object>, WI, BulkOperation<WI>> operation) {
+        return bulkWrite(iterable.stream().map(t -> operation.apply(t, wi)).collect(Collectors.toList())).orThrow().getRecords();
+    }
+
+    /**
+     * The operations written with the bulk write of the updater if it has one, one record at a time otherwise, with the
+     * same reporting.
+     */
+    static <WI> BulkResult write(GeneralUpdater<?, WI> updater, List<BulkOperation<WI>> operations) {
+        if (updater instanceof BulkGeneralUpdater) {
+            return ((BulkGeneralUpdater<?, WI>) updater).bulkWrite(operations);
+        }
+        List<BulkResult.RowResult> rows = new ArrayList<>(operations.size());
+        boolean failed = false;
+        for (int i = 0; i < operations.size(); i++) {
+            BulkOperation<WI> operation = operations.get(i);
+            if (failed) {
+                rows.add(BulkResult.RowResult.notExecuted(i, operation.getRecord()));
+                continue;
+            }
+            try {
+                rows.add(BulkResult.RowResult.success(i, operation.applyTo(updater)));
+            } catch (RuntimeException e) {
+                rows.add(BulkResult.RowResult.failed(i, operation.getRecord(), e));
+                failed = true;
+            }
+        }
+        return new BulkResult(rows);
+    }
+}
@@ -0,0 +1,63 @@
+package lazydevs.persistence.writer.general;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+
+import java.util.Map;
+
+/**
+ * One write of a {@link BulkGeneralUpdater#bulkWrite(java.util.List)}: what to do with which record.
+ */
+//WI stands for WriteInstruction
+@Getter @ToString @AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class BulkOperation<WI> {
+    public enum Action {
+        CREATE, UPDATE, REPLACE, CREATE_OR_REPLACE, DELETE
+    }
+
+    @NonNull private final Action action;
+    @NonNull private final Map<String, Object> record;
+    private final WI writeInstruction;
+
+    public static <WI> BulkOperation<WI> of(Action action, Map<String, Object> record, WI writeInstruction) {
+        return new BulkOperation<>(action, record, writeInstruction);
+    }
+
+    public static <WI> BulkOperation<WI> create(Map<String, Object> record, WI writeInstruction) {
+        return of(Action.CREATE, record, writeInstruction);
+    }
+
+    public static <WI> BulkOperation<WI> update(Map<String, Object> record, WI writeInstruction) {
+        return of(Action.UPDATE, record, writeInstruction);
+    }
+
+    public static <WI> BulkOperation<WI> replace(Map<String, Object> record, WI writeInstruction) {
+        return of(Action.REPLACE, record, writeInstruction);
+    }
+
+    public static <WI> BulkOperation<WI> createOrReplace(Map<String, Object> record, WI writeInstruction) {
+        return of(Action.CREATE_OR_REPLACE, record, writeInstruction);
+    }
+
+    public static <WI> BulkOperation<WI> delete(Map<String, Object> record, WI writeInstruction) {
+        return of(Action.DELETE, record, writeInstruction);
+    }
+
+    /**
+     * Does this operation with the single record method of the updater.
+     * @return what that method returns
+     */
+    public Map<String, Object> applyTo(GeneralUpdater<?, WI> updater) {
+        switch (action) {
+            case CREATE: return updater.create(record, writeInstruction);
+            case UPDATE: return updater.update(record, writeInstruction);
+            case REPLACE: return updater.replace(record, writeInstruction);
+            case CREATE_OR_REPLACE: return updater.createOrReplace(record, writeInstruction);
+            case DELETE: return updater.delete(record, writeInstruction);
+            default: throw new IllegalArgumentException("Unrecognized action = " + action);
+        }
+    }
+}
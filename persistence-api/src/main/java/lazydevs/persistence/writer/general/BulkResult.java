@@ -0,0 +1,87 @@
+package lazydevs.persistence.writer.general;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.ToString;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * The outcome of each operation of a {@link BulkGeneralUpdater#bulkWrite(List)}, in the order of the operations.
+ */
+@Getter @ToString
+public class BulkResult {
+    public enum Status {
+        SUCCESS, FAILED,
+        /** not tried, as an operation before it failed */
+        NOT_EXECUTED
+    }
+
+    @Getter @ToString @AllArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class RowResult {
+        private final int index;
+        private final Status status;
+        /** what the store returned for the record, or the record given when the store does not return one */
+        private final Map<String, Object> record;
+        private final Throwable error;
+
+        public static RowResult success(int index, Map<String, Object> record) {
+            return new RowResult(index, Status.SUCCESS, record, null);
+        }
+
+        public static RowResult failed(int index, Map<String, Object> record, @NonNull Throwable error) {
+            return new RowResult(index, Status.FAILED, record, error);
+        }
+
+        public static RowResult notExecuted(int index, Map<String, Object> record) {
+            return new RowResult(index, Status.NOT_EXECUTED, record, null);
+        }
+    }
+
+    private final List<RowResult> rows;
+    /**
+     * The update, replace and delete operations that found no record to change, for a store that only tells how many
+     * of a bulk write did and not which; null when the store does not tell. A store that tells per row returns no
+     * record for them, as its single record methods do.
+     */
+    private final Long unmatched;
+
+    public BulkResult(@NonNull List<RowResult> rows) {
+        this(rows, null);
+    }
+
+    public BulkResult(@NonNull List<RowResult> rows, Long unmatched) {
+        this.rows = Collections.unmodifiableList(rows);
+        this.unmatched = unmatched;
+    }
+
+    public boolean isSuccess() {
+        return rows.stream().allMatch(row -> Status.SUCCESS == row.status);
+    }
+
+    /**
+     * @return the rows that failed or were not executed
+     */
+    public List<RowResult> getFailures() {
+        return rows.stream().filter(row -> Status.SUCCESS != row.status).collect(Collectors.toList());
+    }
+
+    public List<Map<String, Object>> getRecords() {
+        return rows.stream().map(RowResult::getRecord).collect(Collectors.toList());
+    }
+
+    /**
+     * @throws BulkWriteException if an operation did not succeed
+     */
+    public BulkResult orThrow() {
+        if (!isSuccess()) {
+            throw new BulkWriteException(this);
+        }
+        return this;
+    }
+}
@@ -0,0 +1,17 @@
+package lazydevs.persistence.writer.general;
+
+import lombok.Getter;
+
+/**
+ * Thrown when some operations of a bulk write did not succeed; the result tells which.
+ */
+@Getter
+public class BulkWriteException extends RuntimeException {
+    private final BulkResult result;
+
+    public BulkWriteException(BulkResult result) {
+        super(String.format("%s of %s operations of the bulk write did not succeed", result.getFailures().size(), result.getRows().size()),
+                result.getFailures().stream().map(BulkResult.RowResult::getError).filter(e -> null != e).findFirst().orElse(null));
+        this.result = result;
+    }
+}
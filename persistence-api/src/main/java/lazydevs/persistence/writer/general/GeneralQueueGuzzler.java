@@ -1,81 +1,452 @@
 package lazydevs.persistence.writer.general;
 
+import lazydevs.mapper.utils.SerDe;
 import lazydevs.persistence.connection.multitenant.TenantContext;
-import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Getter;
-import lombok.Setter;
+import lombok.NonNull;
+import lombok.ToString;
 import lombok.extern.slf4j.Slf4j;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ArrayBlockingQueue;
 import java.util.concurrent.BlockingQueue;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * Queues the records to create and writes them on background threads, in batches. Each consumer thread takes what is
+ * in the queue, waits up to {@link Settings#linger} for more until it has {@link Settings#batchSize} records, then
+ * writes them with one {@link GeneralAppender#create(List, Object)} per tenant and write instruction, in the order they
+ * were added.
+ * <p>
+ * When the queue is full, {@link Settings#overflowPolicy} decides whether {@code add} waits, drops the records or
+ * throws. A failed write is logged and its records are lost. {@link #close()}, also run on JVM shutdown, writes what is
+ * still queued before the consumers stop.
+ * <p>
+ * With a {@link Settings#spillDirectory}, the records added while the queue is at its high-water mark are appended to a
+ * {@link SpillJournal} instead, so that {@code add} stays fast while the store is slow. Another thread writes them from
+ * the journal in the order they were spilled, retrying a failed write up to {@link Settings#spillMaxAttempts} times, and
+ * carries on after a restart with the same directory. What is still queued when {@link #close()} gives up waiting is spilled too. A write that failed or was cut
+ * short by a restart is done again, so spilled records are written at least once. They go through SMILE on the way, so
+ * they come back as what Jackson reads them to, and the write instructions have to be readable by Jackson.
+ *
  * @author Abhijeet Rai
  */
 @Slf4j
-public class GeneralQueueGuzzler<WI>{
+public class GeneralQueueGuzzler<WI> implements AutoCloseable {
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+    private static final long POLL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
 
-    @Getter @Setter @AllArgsConstructor
-    private class ElementWithWriteInstruction<T>{
-        private T element;
-        private WI wi;
-        private final String tenantId = TenantContext.getTenantId();
+    public enum OverflowPolicy {
+        /** {@code add} waits for room in the queue */
+        BLOCK,
+        /** the records are dropped and counted, see {@link #getDropped()} */
+        DROP,
+        /** {@code add} throws an {@link IllegalStateException} */
+        FAIL
     }
 
-    private final int queueSize =  1_000;
-    private final BlockingQueue<ElementWithWriteInstruction<Map<String, Object>>> eventQueue;
-    private final BlockingQueue<ElementWithWriteInstruction<Collection<Map<String, Object>>>> multiEventQueue;
-    @Getter private final GeneralAppender<WI> appender;
-    public void add(Map<String, Object> t, WI wi){
-        eventQueue.add(new ElementWithWriteInstruction<>(t, wi));
+    @Getter @Builder @ToString
+    public static class Settings {
+        /** the most records queued, single records and lists alike count as one entry */
+        @Builder.Default private final int queueSize = 10_000;
+        /** records written at most by one write, a list added as a whole may go over it */
+        @Builder.Default private final int batchSize = 1_000;
+        /** how long a consumer waits for a batch to fill up once it has a record */
+        @Builder.Default private final long linger = 100;
+        @Builder.Default private final int noOfConsumers = 1;
+        /** how long the consumers wait before their first write */
+        @Builder.Default private final long initialDelay = 0;
+        @Builder.Default private final TimeUnit timeUnit = TimeUnit.MILLISECONDS;
+        @Builder.Default private final OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+        /** how long {@link #close()} waits for the queued records to be written */
+        @Builder.Default private final long closeTimeoutMillis = 30_000;
+        @Builder.Default private final boolean flushOnJvmShutdown = true;
+        /** where to spill to, no spilling if not set */
+        private final Path spillDirectory;
+        /** the part of queueSize after which the records are spilled */
+        @Builder.Default private final double spillHighWaterMark = 0.8;
+        @Builder.Default private final int spillSegmentSize = SpillJournal.DEFAULT_SEGMENT_SIZE;
+        /** how long to wait before writing spilled records again after a failure */
+        @Builder.Default private final long spillRetryDelayMillis = 1_000;
+        /** how many times spilled records are written before they are logged and skipped, as a failed write of the queue is */
+        @Builder.Default private final int spillMaxAttempts = 10;
+    }
+
+    private static class Entry<WI> {
+        private final List<Map<String, Object>> records;
+        private final WI wi;
+
+        private final String tenantId;
+
+        private Entry(List<Map<String, Object>> records, WI wi) {
+            this(records, wi, TenantContext.getTenantId());
+        }
+
+        private Entry(List<Map<String, Object>> records, WI wi, String tenantId) {
+            this.records = records;
+            this.wi = wi;
+            this.tenantId = tenantId;
+        }
     }
 
-    public void add(List<Map<String, Object>> iterable, WI wi){
-        multiEventQueue.add(new ElementWithWriteInstruction<>(iterable, wi));
+    @Getter private final GeneralAppender<WI> appender;
+    @Getter private final Settings settings;
+    private final BlockingQueue<Entry<WI>> queue;
+    private final List<Thread> consumers = new ArrayList<>();
+    private final Thread shutdownHook;
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong spilled = new AtomicLong();
+    private final SpillJournal journal;
+    private final int spillHighWaterMark;
+    private final Thread replayer;
+    private final CountDownLatch closing = new CountDownLatch(1);
+    private final Object progress = new Object();
+    private long added;// guarded by progress
+    private long written;// entries taken and written, or failed; guarded by progress
+    private volatile boolean closed;
+    // close() has given up waiting for the consumers
+    private volatile boolean abandoned;
+
+    public GeneralQueueGuzzler(GeneralAppender<WI> appender) {
+        this(appender, Settings.builder().build());
     }
 
-    public GeneralQueueGuzzler(GeneralAppender appender) {
-        this(appender, 1, 30, 1, TimeUnit.SECONDS);
+    /**
+     * @param delay the linger time, see {@link Settings#linger}
+     */
+    public GeneralQueueGuzzler(GeneralAppender<WI> appender, int noOfProcessingThreads, long initialDelay, long delay, TimeUnit timeUnit) {
+        this(appender, Settings.builder().noOfConsumers(noOfProcessingThreads).initialDelay(initialDelay).linger(delay).timeUnit(timeUnit).build());
     }
 
-    public GeneralQueueGuzzler(GeneralAppender appender, int noOfProcessingThreads, long initialDelay, long delay, TimeUnit timeUnit) {
+    public GeneralQueueGuzzler(@NonNull GeneralAppender<WI> appender, @NonNull Settings settings) {
+        if (settings.queueSize <= 0 || settings.batchSize <= 0 || settings.noOfConsumers <= 0) {
+            throw new IllegalArgumentException("queueSize, batchSize and noOfConsumers must be positive. settings = " + settings);
+        }
         this.appender = appender;
-        eventQueue = new ArrayBlockingQueue<>(queueSize);
-        multiEventQueue = new ArrayBlockingQueue<>(queueSize);
-        ScheduledExecutorService scheduledExecutorService = Executors.newScheduledThreadPool(noOfProcessingThreads);
-        for(int i = 0; i < noOfProcessingThreads; i++){
-            scheduledExecutorService.scheduleWithFixedDelay(new AsynEventProcessor(), initialDelay, delay, timeUnit);
+        this.settings = settings;
+        this.queue = new ArrayBlockingQueue<>(settings.queueSize);
+        int id = THREAD_COUNTER.incrementAndGet();
+        if (null != settings.spillDirectory) {
+            try {
+                this.journal = new SpillJournal(settings.spillDirectory, settings.spillSegmentSize);
+            } catch (IOException e) {
+                throw new RuntimeException("Exception while opening the spill journal at " + settings.spillDirectory, e);
+            }
+            this.spillHighWaterMark = Math.max(1, (int) (settings.queueSize * settings.spillHighWaterMark));
+            this.replayer = new Thread(this::replay, "queue-guzzler-" + id + "-replay");
+            replayer.setDaemon(true);
+            replayer.start();
+        } else {
+            this.journal = null;
+            this.spillHighWaterMark = Integer.MAX_VALUE;
+            this.replayer = null;
+        }
+        for (int i = 0; i < settings.noOfConsumers; i++) {
+            Thread consumer = new Thread(this::consume, "queue-guzzler-" + id + "-" + (i + 1));
+            consumer.setDaemon(true);
+            consumers.add(consumer);
+            consumer.start();
+        }
+        if (settings.flushOnJvmShutdown) {
+            shutdownHook = new Thread(this::close, "queue-guzzler-" + id + "-shutdown");
+            Runtime.getRuntime().addShutdownHook(shutdownHook);
+        } else {
+            shutdownHook = null;
         }
     }
 
-    private class AsynEventProcessor implements Runnable {
-        @Override
-        public void run() {
+    public void add(Map<String, Object> t, WI wi) {
+        offer(new Entry<>(Collections.singletonList(t), wi));
+    }
+
+    public void add(List<Map<String, Object>> iterable, WI wi) {
+        if (!iterable.isEmpty()) {
+            offer(new Entry<>(new ArrayList<>(iterable), wi));
+        }
+    }
+
+    private void offer(Entry<WI> entry) {
+        if (closed) {
+            throw new IllegalStateException("The queue guzzler is closed");
+        }
+        if (queue.size() >= spillHighWaterMark && spill(entry)) {
+            return;
+        }
+        synchronized (progress) {
+            added++;
+        }
+        boolean queued;
+        if (OverflowPolicy.BLOCK == settings.overflowPolicy) {
             try {
-                ElementWithWriteInstruction<Map<String, Object>> t = eventQueue.poll(10, TimeUnit.MILLISECONDS);
-                ElementWithWriteInstruction<Collection<Map<String, Object>>> collection = multiEventQueue.poll(10, TimeUnit.MILLISECONDS);
-                if (!(null == t && null == collection)) {
-                    if (null != t) {
-                        TenantContext.setTenantId(t.getTenantId());
-                        appender.create(t.element, t.wi);
+                queue.put(entry);
+                queued = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                done(1);
+                throw new RuntimeException("Interrupted while waiting for room in the queue", e);
+            }
+        } else {
+            queued = queue.offer(entry);
+        }
+        if (queued) {
+            return;
+        }
+        done(1);
+        if (OverflowPolicy.FAIL == settings.overflowPolicy) {
+            throw new IllegalStateException("The queue is full. queueSize = " + settings.queueSize);
+        }
+        if (0 == dropped.getAndAdd(entry.records.size())) {
+            log.warn("The queue is full, records are being dropped. settings = {}", settings);
+        }
+    }
+
+    private void consume() {
+        try {
+            closing.await(settings.initialDelay, settings.timeUnit);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        long linger = settings.timeUnit.toNanos(settings.linger);
+        List<Entry<WI>> entries = new ArrayList<>();
+        Entry<WI> carried = null;// taken, but left for the next write as it would have taken this one over batchSize
+        while (!abandoned && (!closed || null != carried || !queue.isEmpty())) {
+            try {
+                Entry<WI> first = null != carried ? carried : queue.poll(POLL_NANOS, TimeUnit.NANOSECONDS);
+                carried = null;
+                if (null == first) {
+                    continue;
+                }
+                entries.add(first);
+                int records = first.records.size();
+                long deadline = System.nanoTime() + linger;
+                while (records < settings.batchSize) {
+                    // one entry at a time, a list added as a whole is one entry however many records it has
+                    Entry<WI> next = queue.poll();
+                    if (null == next) {
+                        long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0 || closed) {
+                            break;
+                        }
+                        // in slices, to see close() while lingering
+                        next = queue.poll(Math.min(remaining, POLL_NANOS), TimeUnit.NANOSECONDS);
+                        if (null == next) {
+                            continue;
+                        }
+                    }
+                    if (records + next.records.size() > settings.batchSize) {
+                        carried = next;
+                        break;
+                    }
+                    entries.add(next);
+                    records += next.records.size();
+                }
+            } catch (InterruptedException e) {
+                // close() has given up waiting, write what was taken and stop
+                Thread.currentThread().interrupt();
+            }
+            write(entries);
+            done(entries.size());
+            entries.clear();
+            // the interrupt may have been swallowed by the appender
+            if (abandoned || Thread.currentThread().isInterrupted()) {
+                if (null != carried) {
+                    write(Collections.singletonList(carried));
+                    done(1);
+                }
+                return;
+            }
+        }
+    }
+
+    private void write(List<Entry<WI>> entries) {
+        group(entries).forEach(this::write);
+    }
+
+    private Map<List<Object>, List<Map<String, Object>>> group(List<Entry<WI>> entries) {
+        Map<List<Object>, List<Map<String, Object>>> groups = new LinkedHashMap<>();
+        for (Entry<WI> entry : entries) {
+            groups.computeIfAbsent(Arrays.asList(entry.tenantId, entry.wi), k -> new ArrayList<>()).addAll(entry.records);
+        }
+        return groups;
+    }
+
+    // false if the write failed
+    private boolean write(List<Object> tenantAndWi, List<Map<String, Object>> records) {
+        TenantContext.setTenantId((String) tenantAndWi.get(0));
+        try {
+            appender.create(records, (WI) tenantAndWi.get(1));
+            return true;
+        } catch (Throwable e) {
+            log.error("Error while writing {} records of the queue", records.size(), e);
+            return false;
+        } finally {
+            TenantContext.reset();
+        }
+    }
+
+    // false if the entry could not be spilled
+    private boolean spill(Entry<WI> entry) {
+        Map<String, Object> spilledEntry = new LinkedHashMap<>();
+        spilledEntry.put("tenantId", entry.tenantId);
+        spilledEntry.put("wi", entry.wi);
+        spilledEntry.put("records", entry.records);
+        try {
+            journal.append(SerDe.SMILE.serializeToBytes(spilledEntry));
+        } catch (Exception e) {
+            log.error("Error while spilling {} records to {}, they are queued instead", entry.records.size(), journal.getDirectory(), e);
+            return false;
+        }
+        spilled.addAndGet(entry.records.size());
+        return true;
+    }
+
+    private void replay() {
+        try {
+            while (!closed) {
+                SpillJournal.Batch batch = journal.read(settings.batchSize);
+                if (batch.isEmpty()) {
+                    closing.await(POLL_NANOS, TimeUnit.NANOSECONDS);
+                    continue;
+                }
+                Map<List<Object>, List<Map<String, Object>>> groups = group(unspill(batch));
+                for (int attempt = 1; ; attempt++) {
+                    groups.entrySet().removeIf(group -> write(group.getKey(), group.getValue()));
+                    if (groups.isEmpty()) {
+                        break;
+                    }
+                    if (attempt >= settings.spillMaxAttempts) {
+                        // so that the records spilled after them are not held up for good
+                        groups.values().forEach(records -> log.error("Skipping {} spilled records after {} failed writes", records.size(), settings.spillMaxAttempts));
+                        break;
                     }
-                    if (null != collection) {
-                        TenantContext.setTenantId(collection.getTenantId());
-                        appender.create(new ArrayList<>(collection.element), collection.wi);
+                    if (closing.await(settings.spillRetryDelayMillis, TimeUnit.MILLISECONDS)) {
+                        return;// not committed, written again after a restart
                     }
                 }
-            } catch (Throwable e) {
-                log.error("Error while polling the eventQueue", e);
+                journal.commit(batch);
+                done(0);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<Entry<WI>> unspill(SpillJournal.Batch batch) {
+        List<Entry<WI>> entries = new ArrayList<>();
+        // read once per batch, so that the entries of a write instruction without equals() are still grouped
+        Map<Object, WI> wis = new HashMap<>();
+        for (byte[] record : batch.getRecords()) {
+            try {
+                Map<String, Object> spilledEntry = SerDe.SMILE.deserializeToMap(record);
+                WI wi = wis.computeIfAbsent(spilledEntry.get("wi"), k -> SerDe.SMILE.getOBJECT_MAPPER().convertValue(k, appender.getWriteInstructionType()));
+                entries.add(new Entry<>((List<Map<String, Object>>) spilledEntry.get("records"), wi, (String) spilledEntry.get("tenantId")));
+            } catch (RuntimeException e) {
+                log.error("Error while reading a spilled entry from {}, it is skipped", journal.getDirectory(), e);
+            }
+        }
+        return entries;
+    }
+
+    private void done(int entries) {
+        synchronized (progress) {
+            written += entries;
+            progress.notifyAll();
+        }
+    }
+
+    /**
+     * Waits until the records added so far are written, the spilled ones included.
+     *
+     * @return false if they are not all written after {@code timeout}
+     */
+    public boolean flush(long timeout, TimeUnit timeUnit) throws InterruptedException {
+        long deadline = System.nanoTime() + timeUnit.toNanos(timeout);
+        synchronized (progress) {
+            long target = added;
+            while (written < target || (null != journal && !journal.isEmpty())) {
+                long remaining = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+                if (remaining <= 0) {
+                    return false;
+                }
+                progress.wait(remaining);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * @return the records dropped so far because the queue was full, with {@link OverflowPolicy#DROP}
+     */
+    public long getDropped() {
+        return dropped.get();
+    }
+
+    /**
+     * @return the records spilled so far, see {@link Settings#spillDirectory}
+     */
+    public long getSpilled() {
+        return spilled.get();
+    }
+
+    public int getQueuedEntries() {
+        return queue.size();
+    }
+
+    /**
+     * Stops taking records and waits up to {@link Settings#closeTimeoutMillis} for the queued ones to be written; the
+     * consumers are interrupted after that, and what is still queued is spilled if there is a spill journal.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        closing.countDown();
+        if (null != shutdownHook && Thread.currentThread() != shutdownHook) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(shutdownHook);
+            } catch (IllegalStateException e) {
+                // the JVM is shutting down, the hook runs anyway
+            }
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(settings.closeTimeoutMillis);
+        for (Thread consumer : consumers) {
+            try {
+                consumer.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
-                throw new RuntimeException("Error while polling the eventQueue", e);
+                break;
             }
         }
+        abandoned = true;
+        consumers.stream().filter(Thread::isAlive).forEach(Thread::interrupt);
+        if (null != journal) {
+            try {
+                replayer.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            List<Entry<WI>> rest = new ArrayList<>();
+            queue.drainTo(rest);
+            rest.removeIf(this::spill);
+            queue.addAll(rest);
+            journal.close();
+        }
+        if (!queue.isEmpty()) {
+            log.error("Closed with {} entries of records not written", queue.size());
+        }
     }
 }
@@ -0,0 +1,275 @@
+package lazydevs.persistence.writer.general;
+
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static java.lang.String.format;
+
+/**
+ * An append-only journal of byte records in a local directory, read back in the order they were appended, also after a
+ * restart. The records are written to memory-mapped segment files of {@code segmentSize} bytes, so an append is a
+ * memory copy; they survive the process crashing, a machine crash can lose what the OS has not written to disk yet.
+ * <p>
+ * There is one reader: {@link #read(int)} returns the records after the last committed position, the same ones again
+ * until they are committed with {@link #commit(Batch)}. The committed position is kept in the directory as well, and
+ * segments are deleted once read past. A journal locks its directory until it is closed, so that no other journal, in
+ * this process or another, opens it meanwhile.
+ * <p>
+ * Each record is stored as its length, its CRC32 and its bytes. The length is written last, so a record is only seen
+ * once complete; on opening, a segment ends at its first record that is not.
+ *
+ * @author Abhijeet Rai
+ */
+@Slf4j
+public class SpillJournal implements Closeable {
+    public static final int DEFAULT_SEGMENT_SIZE = 16 * 1024 * 1024;
+
+    private static final int HEADER = 8;// length and CRC32
+    private static final String SEGMENT_SUFFIX = ".segment";
+    private static final String POSITION_FILE = "position";
+
+    private static final class Segment {
+        private final long id;
+        private final Path path;
+        private final MappedByteBuffer buffer;
+        private int limit;// end of the complete records
+
+        private Segment(long id, Path path, MappedByteBuffer buffer) {
+            this.id = id;
+            this.path = path;
+            this.buffer = buffer;
+        }
+    }
+
+    /**
+     * Records read from the journal, with the position after them.
+     */
+    @Getter
+    public static final class Batch {
+        private final List<byte[]> records;
+        private final long segmentId;
+        private final int position;
+
+        private Batch(List<byte[]> records, long segmentId, int position) {
+            this.records = records;
+            this.segmentId = segmentId;
+            this.position = position;
+        }
+
+        public boolean isEmpty() {
+            return records.isEmpty();
+        }
+    }
+
+    @Getter private final Path directory;
+    private final int segmentSize;
+    private final List<Segment> segments = new ArrayList<>();// oldest first, the last one is appended to
+    private final MappedByteBuffer committed;// segment id and position in one long, so that they change together
+    private final FileChannel positionChannel;// holds the lock on the directory until closed
+    private long readSegmentId;
+    private int readPosition;
+
+    public SpillJournal(Path directory) throws IOException {
+        this(directory, DEFAULT_SEGMENT_SIZE);
+    }
+
+    public SpillJournal(@NonNull Path directory, int segmentSize) throws IOException {
+        if (segmentSize <= HEADER) {
+            throw new IllegalArgumentException("segmentSize must be more than " + HEADER + ". segmentSize = " + segmentSize);
+        }
+        this.directory = Files.createDirectories(directory);
+        this.segmentSize = segmentSize;
+        this.positionChannel = FileChannel.open(directory.resolve(POSITION_FILE), StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            lock(positionChannel, directory);
+            List<Path> paths;
+            try (Stream<Path> files = Files.list(directory)) {
+                paths = files.filter(p -> p.getFileName().toString().endsWith(SEGMENT_SUFFIX)).sorted().collect(Collectors.toList());
+            }
+            for (Path path : paths) {
+                String name = path.getFileName().toString();
+                Segment segment = new Segment(Long.parseLong(name.substring(0, name.length() - SEGMENT_SUFFIX.length())), path, map(path, Files.size(path)));
+                segment.limit = recover(segment);
+                segments.add(segment);
+            }
+            this.committed = positionChannel.map(FileChannel.MapMode.READ_WRITE, 0, Long.BYTES);
+        } catch (IOException | RuntimeException e) {
+            positionChannel.close();
+            throw e;
+        }
+        this.readSegmentId = committed.getLong(0) >>> 32;
+        this.readPosition = (int) committed.getLong(0);
+        if (!segments.isEmpty() && readSegmentId < segments.get(0).id) {
+            readSegmentId = segments.get(0).id;
+            readPosition = 0;
+        }
+        log.info("Opened the spill journal at {} with {} segments", directory, segments.size());
+    }
+
+    private static void lock(FileChannel channel, Path directory) throws IOException {
+        try {
+            if (null == channel.tryLock()) {
+                throw new IOException("The spill journal at " + directory + " is in use by another process");
+            }
+        } catch (OverlappingFileLockException e) {
+            throw new IOException("The spill journal at " + directory + " is already open", e);
+        }
+    }
+
+    private static MappedByteBuffer map(Path path, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    // the end of the complete records of a segment written before
+    private static int recover(Segment segment) {
+        MappedByteBuffer buffer = segment.buffer;
+        int position = 0;
+        while (position + HEADER <= buffer.capacity()) {
+            int length = buffer.getInt(position);
+            if (length <= 0 || length > buffer.capacity() - position - HEADER) {
+                break;
+            }
+            byte[] record = new byte[length];
+            buffer.get(position + HEADER, record);
+            if (crc(record) != buffer.getInt(position + Integer.BYTES)) {
+                log.warn("Incomplete record in the spill journal segment {} at {}, the segment ends there", segment.path, position);
+                break;
+            }
+            position += HEADER + length;
+        }
+        return position;
+    }
+
+    private static int crc(byte[] record) {
+        CRC32 crc = new CRC32();
+        crc.update(record);
+        return (int) crc.getValue();
+    }
+
+    public synchronized void append(@NonNull byte[] record) throws IOException {
+        if (0 == record.length) {
+            throw new IllegalArgumentException("An empty record can not be appended");
+        }
+        Segment segment = segments.isEmpty() ? null : segments.get(segments.size() - 1);
+        if (null == segment || segment.limit + HEADER + record.length > segment.buffer.capacity()) {
+            segment = newSegment(HEADER + record.length);
+        }
+        MappedByteBuffer buffer = segment.buffer;
+        buffer.putInt(segment.limit + Integer.BYTES, crc(record));
+        buffer.put(segment.limit + HEADER, record);
+        buffer.putInt(segment.limit, record.length);
+        segment.limit += HEADER + record.length;
+    }
+
+    private Segment newSegment(int minSize) throws IOException {
+        long id = segments.isEmpty() ? Math.max(readSegmentId, 0) + 1 : segments.get(segments.size() - 1).id + 1;
+        Path path = directory.resolve(format("%019d%s", id, SEGMENT_SUFFIX));
+        Segment segment = new Segment(id, path, map(path, Math.max(segmentSize, minSize)));
+        segments.add(segment);
+        return segment;
+    }
+
+    /**
+     * Up to {@code maxRecords} records after the committed position, in the order they were appended.
+     */
+    public synchronized Batch read(int maxRecords) {
+        List<byte[]> records = new ArrayList<>();
+        int index = indexOf(readSegmentId);
+        if (index < 0) {
+            return new Batch(Collections.emptyList(), readSegmentId, readPosition);
+        }
+        int position = segments.get(index).id == readSegmentId ? readPosition : 0;
+        while (records.size() < maxRecords) {
+            Segment segment = segments.get(index);
+            if (position >= segment.limit) {
+                if (index == segments.size() - 1) {
+                    break;
+                }
+                index++;
+                position = 0;
+                continue;
+            }
+            byte[] record = new byte[segment.buffer.getInt(position)];
+            segment.buffer.get(position + HEADER, record);
+            records.add(record);
+            position += HEADER + record.length;
+        }
+        return new Batch(records, segments.get(index).id, position);
+    }
+
+    private int indexOf(long segmentId) {
+        for (int i = 0; i < segments.size(); i++) {
+            if (segments.get(i).id >= segmentId) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Marks the records of the batch as read, deleting the segments read past.
+     */
+    public synchronized void commit(@NonNull Batch batch) {
+        readSegmentId = batch.segmentId;
+        readPosition = batch.position;
+        committed.putLong(0, readSegmentId << 32 | readPosition);
+        while (segments.size() > 1 && segments.get(0).id < readSegmentId) {
+            Segment segment = segments.remove(0);
+            try {
+                Files.deleteIfExists(segment.path);
+            } catch (IOException e) {
+                log.warn("Could not delete the spill journal segment {}", segment.path, e);
+            }
+        }
+    }
+
+    /**
+     * @return true if every record appended has been committed
+     */
+    public synchronized boolean isEmpty() {
+        if (segments.isEmpty()) {
+            return true;
+        }
+        Segment last = segments.get(segments.size() - 1);
+        return readSegmentId >= last.id && readPosition >= last.limit;
+    }
+
+    /**
+     * Writes the mapped segments and the committed position to disk.
+     */
+    public synchronized void force() {
+        segments.forEach(segment -> segment.buffer.force());
+        committed.force();
+    }
+
+    /**
+     * Forces the journal to disk and releases the directory for another journal.
+     */
+    @Override
+    public void close() {
+        force();
+        try {
+            positionChannel.close();
+        } catch (IOException e) {
+            log.warn("Could not release the lock on the spill journal at {}", directory, e);
+        }
+    }
+}
@@ -18,7 +18,7 @@ public class TemplatisedWriteInstruction {
 
     public static <T extends TemplatisedWriteInstruction> T process(Map<String, Object> map, T writeInstruction){
         if(null !=  writeInstruction && writeInstruction.isTemplate()){
-            return JSON.deserialize(getInstance().generate(JSON.serialize(writeInstruction), map), (Class<T>)writeInstruction.getClass());
+            return getInstance().generate(JSON.serialize(writeInstruction), map, JSON, (Class<T>)writeInstruction.getClass());
         }
         return writeInstruction;
     }
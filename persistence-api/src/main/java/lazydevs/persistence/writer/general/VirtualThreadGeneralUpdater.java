@@ -0,0 +1,112 @@
+package lazydevs.persistence.writer.general;
+
+import lazydevs.persistence.connection.multitenant.TenantContext;
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
+
+/**
+ * Runs a blocking {@link GeneralUpdater} asynchronously, each write on a virtual thread of its own by default. The
+ * tenant of the calling thread is set on the thread that writes. Writes made one after the other are not ordered, chain
+ * the futures when the order matters.
+ *
+ * @author Abhijeet Rai
+ */
+public class VirtualThreadGeneralUpdater<Q, WI> implements AsyncGeneralUpdater<Q, WI> {
+    private static final ThreadFactory THREAD_FACTORY = Thread.ofVirtual().name("general-updater-", 1).factory();
+
+    @Getter private final GeneralUpdater<Q, WI> updater;
+    private final Executor executor;
+
+    public VirtualThreadGeneralUpdater(GeneralUpdater<Q, WI> updater) {
+        this(updater, task -> THREAD_FACTORY.newThread(task).start());
+    }
+
+    /**
+     * @param executor runs the writes instead of new virtual threads
+     */
+    public VirtualThreadGeneralUpdater(@NonNull GeneralUpdater<Q, WI> updater, @NonNull Executor executor) {
+        this.updater = updater;
+        this.executor = executor;
+    }
+
+    private <T> CompletableFuture<T> async(Supplier<T> write) {
+        return CompletableFuture.supplyAsync(write, TenantContext.propagating(executor));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> create(Map<String, Object> t, WI wi) {
+        return async(() -> updater.create(t, wi));
+    }
+
+    @Override
+    public CompletableFuture<List<Map<String, Object>>> create(List<Map<String, Object>> iterable, WI wi) {
+        return async(() -> updater.create(iterable, wi));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> replace(Map<String, Object> t, WI wi) {
+        return async(() -> updater.replace(t, wi));
+    }
+
+    @Override
+    public CompletableFuture<List<Map<String, Object>>> replace(List<Map<String, Object>> iterable, WI wi) {
+        return async(() -> updater.replace(iterable, wi));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> update(Map<String, Object> t, WI wi) {
+        return async(() -> updater.update(t, wi));
+    }
+
+    @Override
+    public CompletableFuture<List<Map<String, Object>>> update(List<Map<String, Object>> iterable, WI wi) {
+        return async(() -> updater.update(iterable, wi));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> createOrReplace(Map<String, Object> t, WI wi) {
+        return async(() -> updater.createOrReplace(t, wi));
+    }
+
+    @Override
+    public CompletableFuture<List<Map<String, Object>>> createOrReplace(List<Map<String, Object>> iterable, WI wi) {
+        return async(() -> updater.createOrReplace(iterable, wi));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> updateOne(String id, Map<String, Object> fieldsToUpdate, WI wi) {
+        return async(() -> updater.updateOne(id, fieldsToUpdate, wi));
+    }
+
+    @Override
+    public CompletableFuture<Long> updateMany(Q query, Map<String, Object> fieldsToUpdate, WI wi) {
+        return async(() -> updater.updateMany(query, fieldsToUpdate, wi));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> delete(Map<String, Object> t, WI wi) {
+        return async(() -> updater.delete(t, wi));
+    }
+
+    @Override
+    public CompletableFuture<Map<String, Object>> delete(String id, WI wi) {
+        return async(() -> updater.delete(id, wi));
+    }
+
+    @Override
+    public CompletableFuture<List<Map<String, Object>>> delete(List<Map<String, Object>> iterable, WI wi) {
+        return async(() -> updater.delete(iterable, wi));
+    }
+
+    @Override
+    public Class<WI> getWriteInstructionType() {
+        return updater.getWriteInstructionType();
+    }
+}
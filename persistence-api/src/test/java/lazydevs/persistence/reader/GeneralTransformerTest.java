@@ -0,0 +1,96 @@
+package lazydevs.persistence.reader;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * @author Abhijeet Rai
+ */
+public class GeneralTransformerTest {
+
+    @Test
+    public void testTransformAndMergeToOriginal() {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", 1);
+        row.put("name", "Abhijeet");
+        row.put("tags", new ArrayList<>(Arrays.asList("a", "b")));
+        GeneralTransformer transformer = new GeneralTransformer();
+        transformer.setTransformerFqcn(Tagging.class.getName());
+        transformer.setTransformAndMergeToOriginal(true);
+
+        Map<String, Object> merged = transformer.convert(row);
+        assertEquals(row.get("tags"), Arrays.asList("a", "b"));
+
+        assertEquals(new ArrayList<>(merged.keySet()), Arrays.asList("id", "name", "tags", "tagCount"));
+        assertEquals(merged.get("name"), "ABHIJEET");
+        assertEquals(merged.get("tags"), Arrays.asList("a", "b", "x"));
+        assertEquals(merged.get("tagCount"), 3);
+        // a map of its own, not a view of the row or of what the transformer returned
+        row.put("id", 2);
+        merged.put("id", 3);
+        assertEquals(row.get("id"), 2);
+        assertEquals(merged.get("id"), 3);
+    }
+
+    @Test
+    public void testMergeOverAnImmutableTransform() {
+        GeneralTransformer transformer = new GeneralTransformer();
+        transformer.setTransformerFqcn(Constant.class.getName());
+        transformer.setTransformAndMergeToOriginal(true);
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", 1);
+
+        Map<String, Object> merged = transformer.convert(row);
+        merged.put("extra", true);
+
+        assertEquals(merged, Map.of("id", 1, "source", "constant", "extra", true));
+        assertEquals(row, Map.of("id", 1));
+    }
+
+    @Test
+    public void testTemplateEngineSetBeforeOrAfterTheTemplate() {
+        GeneralTransformer transformer = new GeneralTransformer();
+        transformer.setTemplate("{\"name\": \"${name}\"}");
+        assertEquals(transformer.convert(Map.of("name", "Abhijeet")), Map.of("name", "Abhijeet"));
+
+        transformer.setTemplateEngine("missing");
+        try {
+            transformer.convert(Map.of("name", "Abhijeet"));
+            fail("expected an IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            assertTrue(e.getMessage().startsWith("No template engine registered with name = 'missing'"), e.getMessage());
+        }
+
+        transformer.setTemplateEngine(null);
+        transformer.setTemplate("{\"id\": ${id}}");
+        assertEquals(transformer.convert(Map.of("id", 1)), Map.of("id", 1));
+    }
+
+    public static class Constant implements GenericTransformer {
+        @Override
+        public Map<String, Object> transform(Map<String, Object> map) {
+            return Map.of("source", "constant");
+        }
+    }
+
+    public static class Tagging implements GenericTransformer {
+        @Override
+        public Map<String, Object> transform(Map<String, Object> map) {
+            ((List<Object>) map.get("tags")).add("x");
+            Map<String, Object> transformed = new LinkedHashMap<>();
+            transformed.put("name", ((String) map.get("name")).toUpperCase());
+            transformed.put("tags", map.get("tags"));
+            transformed.put("tagCount", ((List<Object>) map.get("tags")).size());
+            return transformed;
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package lazydevs.persistence.reader;
+
+import lazydevs.mapper.utils.BatchIterator;
+import lazydevs.mapper.utils.BatchIterators;
+import lazydevs.mapper.utils.DefaultBatchIterator;
+import lazydevs.persistence.connection.multitenant.TenantContext;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * @author Abhijeet Rai
+ */
+@Test
+public class VirtualThreadGeneralReaderTest {
+
+    // the query is the number of rows, each row tells the thread and tenant that read it
+    private static class InMemoryReader implements GeneralReader<Integer, Object> {
+        @Override
+        public Map<String, Object> findOne(Integer query, Map<String, Object> params) {
+            try {
+                TimeUnit.MILLISECONDS.sleep(query);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+            return row(0);
+        }
+
+        @Override
+        public List<Map<String, Object>> findAll(Integer query, Map<String, Object> params) {
+            if (query < 0) {
+                throw new IllegalArgumentException("negative");
+            }
+            return IntStream.range(0, query).mapToObj(InMemoryReader::row).collect(Collectors.toList());
+        }
+
+        @Override
+        public Page<Map<String, Object>> findPage(Page.PageRequest pageRequest, Integer query, Map<String, Object> params) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public BatchIterator<Map<String, Object>> findAllInBatch(int batchSize, Integer query, Map<String, Object> params) {
+            return new DefaultBatchIterator<>(findAll(query, params), batchSize);
+        }
+
+        @Override
+        public List<Map<String, Object>> distinct(Integer query, Map<String, Object> params) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long count(Integer query, Map<String, Object> params) {
+            return query;
+        }
+
+        @Override
+        public Class<Integer> getQueryType() {
+            return Integer.class;
+        }
+
+        private static Map<String, Object> row(int i) {
+            return Map.of("i", i, "virtual", Thread.currentThread().isVirtual(), "tenant", String.valueOf(TenantContext.getTenantId()));
+        }
+    }
+
+    public void testReadsOnVirtualThreadsWithTheTenant() {
+        TenantContext.setTenantId("t1");
+        try {
+            List<Map<String, Object>> rows = AsyncGeneralReader.onVirtualThreads(new InMemoryReader()).findAll(3, null).join();
+            assertEquals(rows.size(), 3);
+            assertEquals(rows.get(0).get("virtual"), true);
+            assertEquals(rows.get(0).get("tenant"), "t1");
+        } finally {
+            TenantContext.reset();
+        }
+    }
+
+    public void testThousandsOfConcurrentReads() {
+        AsyncGeneralReader<Integer, Object> reader = new VirtualThreadGeneralReader<>(new InMemoryReader());
+        long start = System.nanoTime();
+        List<CompletableFuture<Map<String, Object>>> futures = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            futures.add(reader.findOne(200, null));
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        // one after the other they would take 1000 s
+        assertTrue(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start) < 30);
+    }
+
+    public void testFailureCompletesExceptionally() {
+        try {
+            new VirtualThreadGeneralReader<>(new InMemoryReader()).findAll(-1, null).join();
+            fail("The failure of the reader should have been thrown.");
+        } catch (CompletionException e) {
+            assertEquals(e.getCause().getMessage(), "negative");
+        }
+    }
+
+    public void testFindAllInBatch() {
+        TenantContext.setTenantId("t2");
+        AsyncGeneralReader<Integer, Object> reader = new VirtualThreadGeneralReader<>(new InMemoryReader());
+        try {
+            List<Map<String, Object>> rows = new ArrayList<>();
+            // every subscriber reads on its own
+            for (int subscriber = 0; subscriber < 2; subscriber++) {
+                try (BatchIterator<Map<String, Object>> batchIterator = BatchIterators.fromPublisher(reader.findAllInBatch(4, 10, null), 4, 1)) {
+                    batchIterator.forEachRemaining(rows::addAll);
+                }
+            }
+            assertEquals(rows.size(), 20);
+            assertEquals(rows.get(19).get("i"), 9);
+            assertEquals(rows.get(19).get("tenant"), "t2");
+        } finally {
+            TenantContext.reset();
+        }
+    }
+
+    public void testFindAllInBatchFailingToOpen() {
+        BatchIterator<Map<String, Object>> batchIterator = BatchIterators.fromPublisher(
+                new VirtualThreadGeneralReader<>(new InMemoryReader()).findAllInBatch(4, -1, Collections.emptyMap()), 4, 1);
+        try {
+            batchIterator.next();
+            fail("The failure of the reader should have been thrown.");
+        } catch (RuntimeException e) {
+            assertEquals(e.getCause().getMessage(), "negative");
+        }
+    }
+}
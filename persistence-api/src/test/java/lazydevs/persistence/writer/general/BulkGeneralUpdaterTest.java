@@ -0,0 +1,153 @@
+package lazydevs.persistence.writer.general;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * @author Abhijeet Rai
+ */
+@Test
+public class BulkGeneralUpdaterTest {
+
+    /** keeps the records by id, fails on a create of an id it already has or an update of one it does not */
+    private static class InMemoryUpdater implements GeneralUpdater<String, String> {
+        final Map<Object, Map<String, Object>> records;
+        final List<String> calls = new ArrayList<>();
+
+        InMemoryUpdater() {
+            this(new LinkedHashMap<>());
+        }
+
+        InMemoryUpdater(Map<Object, Map<String, Object>> records) {
+            this.records = records;
+        }
+
+        @Override
+        public Map<String, Object> create(Map<String, Object> t, String wi) {
+            calls.add("create " + t.get("id"));
+            if (records.containsKey(t.get("id"))) {
+                throw new IllegalStateException("duplicate id " + t.get("id"));
+            }
+            records.put(t.get("id"), t);
+            return t;
+        }
+
+        @Override
+        public Map<String, Object> replace(Map<String, Object> t, String wi) {
+            return update(t, wi);
+        }
+
+        @Override
+        public Map<String, Object> update(Map<String, Object> t, String wi) {
+            calls.add("update " + t.get("id"));
+            if (!records.containsKey(t.get("id"))) {
+                throw new IllegalStateException("no record with id " + t.get("id"));
+            }
+            records.put(t.get("id"), t);
+            return t;
+        }
+
+        @Override
+        public Map<String, Object> createOrReplace(Map<String, Object> t, String wi) {
+            calls.add("createOrReplace " + t.get("id"));
+            records.put(t.get("id"), t);
+            return t;
+        }
+
+        @Override
+        public Map<String, Object> delete(Map<String, Object> t, String wi) {
+            calls.add("delete " + t.get("id"));
+            return records.remove(t.get("id"));
+        }
+
+        @Override
+        public Map<String, Object> updateOne(String id, Map<String, Object> fieldsToUpdate, String wi) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public long updateMany(String query, Map<String, Object> fieldsToUpdate, String wi) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Map<String, Object> delete(String id, String wi) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Class<String> getWriteInstructionType() {
+            return String.class;
+        }
+    }
+
+    /** the bulk write of the in memory updater, one record at a time on the same records */
+    private static class InMemoryBulkUpdater extends InMemoryUpdater implements BulkGeneralUpdater<String, String> {
+        @Override
+        public BulkResult bulkWrite(List<BulkOperation<String>> operations) {
+            return BulkGeneralUpdater.write(new InMemoryUpdater(records), operations);
+        }
+    }
+
+    private static Map<String, Object> record(Object id) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("id", id);
+        return map;
+    }
+
+    public void testFallbackIsOrderedAndStopsAtFirstFailure() {
+        InMemoryUpdater updater = new InMemoryUpdater();
+        updater.create(record(1), null);
+        updater.calls.clear();
+
+        BulkResult result = BulkGeneralUpdater.write(updater, Arrays.asList(
+                BulkOperation.createOrReplace(record(2), null),
+                BulkOperation.update(record(1), null),
+                BulkOperation.create(record(1), null),
+                BulkOperation.delete(record(2), null)));
+
+        assertEquals(updater.calls, Arrays.asList("createOrReplace 2", "update 1", "create 1"));
+        assertFalse(result.isSuccess());
+        assertEquals(result.getRows().stream().map(BulkResult.RowResult::getStatus).collect(Collectors.toList()),
+                Arrays.asList(BulkResult.Status.SUCCESS, BulkResult.Status.SUCCESS, BulkResult.Status.FAILED, BulkResult.Status.NOT_EXECUTED));
+        assertEquals(result.getFailures().size(), 2);
+        assertEquals(result.getFailures().get(0).getIndex(), 2);
+        assertTrue(result.getFailures().get(0).getError() instanceof IllegalStateException);
+        assertEquals(result.getFailures().get(1).getRecord(), record(2));
+        assertTrue(updater.records.containsKey(2));
+    }
+
+    public void testFallbackOfEmptyOperations() {
+        BulkResult result = BulkGeneralUpdater.write(new InMemoryUpdater(), Collections.emptyList());
+        assertTrue(result.isSuccess());
+        assertTrue(result.orThrow().getRows().isEmpty());
+    }
+
+    public void testListMethodsThrowWithTheResult() {
+        InMemoryBulkUpdater updater = new InMemoryBulkUpdater();
+        assertEquals(updater.create(Arrays.asList(record(0), record(2)), null), Arrays.asList(record(0), record(2)));
+        try {
+            updater.create(Arrays.asList(record(1), record(2), record(3)), null);
+            fail("expected a BulkWriteException");
+        } catch (BulkWriteException e) {
+            assertEquals(e.getMessage(), "2 of 3 operations of the bulk write did not succeed");
+            assertTrue(e.getCause() instanceof IllegalStateException);
+            assertEquals(e.getResult().getRows().get(0).getStatus(), BulkResult.Status.SUCCESS);
+            assertEquals(e.getResult().getRows().get(1).getStatus(), BulkResult.Status.FAILED);
+            assertEquals(e.getResult().getRows().get(2).getStatus(), BulkResult.Status.NOT_EXECUTED);
+        }
+        assertEquals(new ArrayList<>(updater.records.keySet()), Arrays.asList(0, 2, 1));
+    }
+}
@@ -0,0 +1,246 @@
+package lazydevs.persistence.writer.general;
+
+import lazydevs.persistence.connection.multitenant.TenantContext;
+import org.testng.annotations.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static lazydevs.persistence.writer.general.GeneralQueueGuzzler.OverflowPolicy.DROP;
+import static lazydevs.persistence.writer.general.GeneralQueueGuzzler.OverflowPolicy.FAIL;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * @author Abhijeet Rai
+ */
+@Test
+public class GeneralQueueGuzzlerTest {
+
+    // records every write as "tenant/wi/noOfRecords", fails the write instruction "fail"
+    private static class RecordingAppender implements GeneralAppender<String> {
+        private final List<String> writes = Collections.synchronizedList(new ArrayList<>());
+        private final AtomicInteger failed = new AtomicInteger();
+        private final CountDownLatch release;
+
+        RecordingAppender(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public Map<String, Object> create(Map<String, Object> t, String wi) {
+            throw new UnsupportedOperationException("only lists are expected");
+        }
+
+        @Override
+        public List<Map<String, Object>> create(List<Map<String, Object>> iterable, String wi) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                failed.addAndGet(iterable.size());
+                throw new IllegalStateException(e);
+            }
+            if ("fail".equals(wi)) {
+                failed.addAndGet(iterable.size());
+                throw new IllegalStateException("failed");
+            }
+            writes.add(TenantContext.getTenantId() + "/" + wi + "/" + iterable.size());
+            return iterable;
+        }
+
+        @Override
+        public Class<String> getWriteInstructionType() {
+            return String.class;
+        }
+
+        int written() {
+            synchronized (writes) {
+                return writes.stream().mapToInt(w -> Integer.parseInt(w.substring(w.lastIndexOf('/') + 1))).sum();
+            }
+        }
+    }
+
+    private static GeneralQueueGuzzler.Settings.SettingsBuilder settings() {
+        return GeneralQueueGuzzler.Settings.builder().flushOnJvmShutdown(false);
+    }
+
+    public void testWritesInBatches() throws InterruptedException {
+        RecordingAppender appender = new RecordingAppender(new CountDownLatch(0));
+        try (GeneralQueueGuzzler<String> guzzler = new GeneralQueueGuzzler<>(appender, settings().batchSize(500).linger(20).noOfConsumers(2).build())) {
+            for (int i = 0; i < 50_000; i++) {
+                guzzler.add(Collections.singletonMap("i", i), "wi");
+            }
+            assertTrue(guzzler.flush(10, TimeUnit.SECONDS));
+            assertEquals(appender.written(), 50_000);
+            assertTrue(appender.writes.size() < 1_000, "writes = " + appender.writes.size());
+        }
+    }
+
+    public void testGroupsByTenantAndWriteInstruction() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingAppender appender = new RecordingAppender(release);
+        try (GeneralQueueGuzzler<String> guzzler = new GeneralQueueGuzzler<>(appender, settings().linger(1).timeUnit(TimeUnit.SECONDS).build())) {
+            // the first write blocks until everything else is queued
+            guzzler.add(Collections.singletonMap("i", 0), "a");
+            TimeUnit.MILLISECONDS.sleep(1_200);
+            for (String tenant : Arrays.asList("t1", "t2")) {
+                TenantContext.setTenantId(tenant);
+                guzzler.add(Collections.singletonMap("i", 1), "a");
+                guzzler.add(Arrays.asList(Collections.singletonMap("i", 2), Collections.singletonMap("i", 3)), "b");
+                guzzler.add(Collections.singletonMap("i", 4), "a");
+            }
+            TenantContext.reset();
+            release.countDown();
+            assertTrue(guzzler.flush(10, TimeUnit.SECONDS));
+            assertEquals(appender.writes, Arrays.asList("null/a/1", "t1/a/2", "t1/b/2", "t2/a/2", "t2/b/2"));
+        }
+    }
+
+    public void testListsAddedAsAWholeKeepWritesWithinTheBatchSize() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingAppender appender = new RecordingAppender(release);
+        try (GeneralQueueGuzzler<String> guzzler = new GeneralQueueGuzzler<>(appender, settings().batchSize(5).linger(50).build())) {
+            // the first write blocks until everything else is queued
+            guzzler.add(Collections.singletonMap("i", 0), "wi");
+            TimeUnit.MILLISECONDS.sleep(300);
+            for (int size : new int[]{3, 3, 3, 10, 2, 1}) {
+                guzzler.add(Collections.nCopies(size, Collections.singletonMap("i", size)), "wi");
+            }
+            release.countDown();
+            assertTrue(guzzler.flush(10, TimeUnit.SECONDS));
+            // a list that does not fit is left for the next write, only one bigger than batchSize goes over it
+            assertEquals(appender.writes, Arrays.asList("null/wi/1", "null/wi/3", "null/wi/3", "null/wi/3", "null/wi/10", "null/wi/3"));
+        }
+    }
+
+    public void testDropWhenFull() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingAppender appender = new RecordingAppender(release);
+        try (GeneralQueueGuzzler<String> guzzler = new GeneralQueueGuzzler<>(appender, settings().queueSize(10).linger(0).overflowPolicy(DROP).build())) {
+            for (int i = 0; i < 100; i++) {
+                guzzler.add(Collections.singletonMap("i", i), "wi");
+            }
+            release.countDown();
+            assertTrue(guzzler.flush(10, TimeUnit.SECONDS));
+            assertTrue(guzzler.getDropped() > 0);
+            assertEquals(appender.written() + guzzler.getDropped(), 100);
+        }
+    }
+
+    public void testFailWhenFull() {
+        CountDownLatch release = new CountDownLatch(1);
+        GeneralQueueGuzzler<String> guzzler = new GeneralQueueGuzzler<>(new RecordingAppender(release), settings().queueSize(10).overflowPolicy(FAIL).build());
+        try {
+            for (int i = 0; i < 100; i++) {
+                guzzler.add(Collections.singletonMap("i", i), "wi");
+            }
+            fail("The queue should have been full.");
+        } catch (IllegalStateException e) {
+            assertEquals(e.getMessage(), "The queue is full. queueSize = 10");
+        } finally {
+            release.countDown();
+            guzzler.close();
+        }
+    }
+
+    public void testFailedWriteDoesNotStopTheConsumer() throws InterruptedException {
+        RecordingAppender appender = new RecordingAppender(new CountDownLatch(0));
+        try (GeneralQueueGuzzler<String> guzzler = new GeneralQueueGuzzler<>(appender, settings().linger(0).build())) {
+            guzzler.add(Collections.singletonMap("i", 0), "fail");
+            assertTrue(guzzler.flush(10, TimeUnit.SECONDS));
+            guzzler.add(Collections.singletonMap("i", 1), "wi");
+            assertTrue(guzzler.flush(10, TimeUnit.SECONDS));
+            assertEquals(appender.writes, Arrays.asList("null/wi/1"));
+        }
+    }
+
+    public void testCloseWritesWhatIsQueued() {
+        RecordingAppender appender = new RecordingAppender(new CountDownLatch(0));
+        GeneralQueueGuzzler<String> guzzler = new GeneralQueueGuzzler<>(appender, settings().linger(1).initialDelay(1).timeUnit(TimeUnit.MINUTES).build());
+        for (int i = 0; i < 10; i++) {
+            guzzler.add(Collections.singletonMap("i", i), "wi");
+        }
+        assertEquals(appender.written(), 0);
+        guzzler.close();
+        assertEquals(appender.written(), 10);
+        assertFalse(appender.writes.isEmpty());
+        try {
+            guzzler.add(Collections.singletonMap("i", 10), "wi");
+            fail("A closed guzzler should not take records.");
+        } catch (IllegalStateException e) {
+            assertEquals(e.getMessage(), "The queue guzzler is closed");
+        }
+    }
+
+    public void testSpillsWhileTheStoreIsSlow() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingAppender appender = new RecordingAppender(release);
+        GeneralQueueGuzzler.Settings settings = settings().queueSize(10).linger(0).spillHighWaterMark(0.5).spillDirectory(Files.createTempDirectory("spill")).build();
+        try (GeneralQueueGuzzler<String> guzzler = new GeneralQueueGuzzler<>(appender, settings)) {
+            TenantContext.setTenantId("t1");
+            for (int i = 0; i < 1_000; i++) {
+                guzzler.add(Collections.singletonMap("i", i), "wi");
+            }
+            TenantContext.reset();
+            assertTrue(guzzler.getSpilled() > 900);
+            release.countDown();
+            assertTrue(guzzler.flush(30, TimeUnit.SECONDS));
+            assertEquals(appender.written(), 1_000);
+            assertTrue(appender.writes.stream().allMatch(w -> w.startsWith("t1/wi/")), appender.writes.toString());
+        }
+    }
+
+    public void testSpilledRecordsThatKeepFailingAreSkipped() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        RecordingAppender appender = new RecordingAppender(release);
+        GeneralQueueGuzzler.Settings settings = settings().queueSize(10).linger(0).spillHighWaterMark(0.5).spillRetryDelayMillis(10).spillMaxAttempts(3)
+                .spillDirectory(Files.createTempDirectory("spill")).build();
+        try (GeneralQueueGuzzler<String> guzzler = new GeneralQueueGuzzler<>(appender, settings)) {
+            // the consumer takes the first record and waits for the store, the queue then fills up to the high-water mark
+            guzzler.add(Collections.singletonMap("i", 0), "wi");
+            while (guzzler.getQueuedEntries() > 0) {
+                Thread.sleep(1);
+            }
+            for (int i = 1; i <= 5; i++) {
+                guzzler.add(Collections.singletonMap("i", i), "wi");
+            }
+            for (int i = 6; i <= 10; i++) {
+                guzzler.add(Collections.singletonMap("i", i), i <= 8 ? "fail" : "wi");
+            }
+            assertEquals(guzzler.getSpilled(), 5);
+            release.countDown();
+            assertTrue(guzzler.flush(30, TimeUnit.SECONDS));
+            assertEquals(appender.written(), 8);
+            assertEquals(appender.failed.get(), 3 * 3);
+        }
+    }
+
+    public void testSpilledRecordsAreWrittenAfterARestart() throws Exception {
+        Path directory = Files.createTempDirectory("spill");
+        CountDownLatch never = new CountDownLatch(1);
+        RecordingAppender stuck = new RecordingAppender(never);
+        GeneralQueueGuzzler<String> guzzler = new GeneralQueueGuzzler<>(stuck, settings().queueSize(100).linger(0).closeTimeoutMillis(200).spillDirectory(directory).build());
+        for (int i = 0; i < 150; i++) {
+            guzzler.add(Collections.singletonMap("i", i), "wi");
+        }
+        guzzler.close();
+
+        RecordingAppender appender = new RecordingAppender(new CountDownLatch(0));
+        try (GeneralQueueGuzzler<String> restarted = new GeneralQueueGuzzler<>(appender, settings().spillDirectory(directory).build())) {
+            assertTrue(restarted.flush(30, TimeUnit.SECONDS));
+            // all but the records being written when the first one was closed
+            assertEquals(appender.written() + stuck.failed.get(), 150);
+            assertTrue(stuck.failed.get() > 0);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package lazydevs.persistence.writer.general;
+
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * @author Abhijeet Rai
+ */
+@Test
+public class SpillJournalTest {
+
+    private static List<String> strings(SpillJournal.Batch batch) {
+        return batch.getRecords().stream().map(r -> new String(r, StandardCharsets.UTF_8)).collect(Collectors.toList());
+    }
+
+    private static void append(SpillJournal journal, String... records) throws IOException {
+        for (String record : records) {
+            journal.append(record.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static long segments(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(p -> p.toString().endsWith(".segment")).count();
+        }
+    }
+
+    public void testReadUntilCommitted() throws IOException {
+        SpillJournal journal = new SpillJournal(Files.createTempDirectory("spill"));
+        assertTrue(journal.isEmpty());
+        append(journal, "a", "b", "c");
+        assertFalse(journal.isEmpty());
+        SpillJournal.Batch batch = journal.read(2);
+        assertEquals(strings(batch), Arrays.asList("a", "b"));
+        assertEquals(strings(journal.read(2)), Arrays.asList("a", "b"));
+        journal.commit(batch);
+        assertEquals(strings(journal.read(2)), Arrays.asList("c"));
+        journal.commit(journal.read(2));
+        assertTrue(journal.isEmpty());
+        assertTrue(journal.read(2).isEmpty());
+        journal.close();
+    }
+
+    public void testSegmentsRollAndAreDeletedOnceRead() throws IOException {
+        Path directory = Files.createTempDirectory("spill");
+        SpillJournal journal = new SpillJournal(directory, 64);
+        for (int i = 0; i < 20; i++) {
+            append(journal, "record-" + i);
+        }
+        // a record bigger than a segment gets a segment of its own
+        append(journal, String.join("", Collections.nCopies(100, "x")));
+        assertTrue(segments(directory) > 5);
+        SpillJournal.Batch batch = journal.read(100);
+        assertEquals(batch.getRecords().size(), 21);
+        assertEquals(strings(batch).get(19), "record-19");
+        journal.commit(batch);
+        assertTrue(journal.isEmpty());
+        assertEquals(segments(directory), 1);
+    }
+
+    public void testReopenCarriesOn() throws IOException {
+        Path directory = Files.createTempDirectory("spill");
+        SpillJournal journal = new SpillJournal(directory, 64);
+        append(journal, "a", "b", "c", "d", "e", "f", "g");
+        journal.commit(journal.read(3));
+        journal.close();
+
+        SpillJournal reopened = new SpillJournal(directory, 64);
+        append(reopened, "h");
+        assertEquals(strings(reopened.read(100)), Arrays.asList("d", "e", "f", "g", "h"));
+    }
+
+    public void testDirectoryIsLockedUntilClosed() throws IOException {
+        Path directory = Files.createTempDirectory("spill");
+        SpillJournal journal = new SpillJournal(directory, 64);
+        append(journal, "a");
+        try {
+            new SpillJournal(directory, 64);
+            fail("The directory of an open journal should not open again.");
+        } catch (IOException e) {
+            assertEquals(e.getMessage(), "The spill journal at " + directory + " is already open");
+        }
+        journal.close();
+        assertEquals(strings(new SpillJournal(directory, 64).read(10)), Arrays.asList("a"));
+    }
+
+    public void testIncompleteRecordEndsTheSegment() throws IOException {
+        Path directory = Files.createTempDirectory("spill");
+        SpillJournal journal = new SpillJournal(directory, 1024);
+        append(journal, "a", "b");
+        journal.close();
+        // the length of a third record without its bytes, as if the process died while appending it
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(p -> p.toString().endsWith(".segment")).findFirst().get();
+        }
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(4).putInt(0, 5), 18);
+        }
+
+        SpillJournal reopened = new SpillJournal(directory, 1024);
+        assertEquals(strings(reopened.read(100)), Arrays.asList("a", "b"));
+        append(reopened, "c");
+        assertEquals(strings(reopened.read(100)), Arrays.asList("a", "b", "c"));
+    }
+}
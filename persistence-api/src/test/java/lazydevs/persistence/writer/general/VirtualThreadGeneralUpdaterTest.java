@@ -0,0 +1,129 @@
+package lazydevs.persistence.writer.general;
+
+import lazydevs.persistence.connection.multitenant.TenantContext;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * @author Abhijeet Rai
+ */
+@Test
+public class VirtualThreadGeneralUpdaterTest {
+
+    // records every write as "tenant/action/virtual", fails the deletes
+    private static class RecordingUpdater implements GeneralUpdater<String, String> {
+        private final List<String> writes = Collections.synchronizedList(new ArrayList<>());
+
+        private Map<String, Object> record(String action, Map<String, Object> t) {
+            writes.add(TenantContext.getTenantId() + "/" + action + "/" + Thread.currentThread().isVirtual());
+            return t;
+        }
+
+        @Override
+        public Map<String, Object> create(Map<String, Object> t, String wi) {
+            return record("create", t);
+        }
+
+        @Override
+        public Map<String, Object> replace(Map<String, Object> t, String wi) {
+            return record("replace", t);
+        }
+
+        @Override
+        public Map<String, Object> update(Map<String, Object> t, String wi) {
+            return record("update", t);
+        }
+
+        @Override
+        public Map<String, Object> createOrReplace(Map<String, Object> t, String wi) {
+            return record("createOrReplace", t);
+        }
+
+        @Override
+        public Map<String, Object> delete(Map<String, Object> t, String wi) {
+            throw new IllegalStateException("no record with id " + t.get("id"));
+        }
+
+        @Override
+        public Map<String, Object> updateOne(String id, Map<String, Object> fieldsToUpdate, String wi) {
+            return record("updateOne", fieldsToUpdate);
+        }
+
+        @Override
+        public long updateMany(String query, Map<String, Object> fieldsToUpdate, String wi) {
+            record("updateMany", fieldsToUpdate);
+            return 2;
+        }
+
+        @Override
+        public Map<String, Object> delete(String id, String wi) {
+            throw new IllegalStateException("no record with id " + id);
+        }
+
+        @Override
+        public Class<String> getWriteInstructionType() {
+            return String.class;
+        }
+    }
+
+    public void testWritesRunOnVirtualThreadsWithTheCallersTenant() {
+        RecordingUpdater updater = new RecordingUpdater();
+        AsyncGeneralUpdater<String, String> async = AsyncGeneralUpdater.onVirtualThreads(updater);
+        Map<String, Object> record = Collections.singletonMap("id", 1);
+        TenantContext.setTenantId("acme");
+        try {
+            assertEquals(async.create(record, null).join(), record);
+            assertEquals(async.update(Arrays.asList(record, record), null).join(), Arrays.asList(record, record));
+            assertEquals(async.updateMany("all", record, null).join(), Long.valueOf(2));
+        } finally {
+            TenantContext.reset();
+        }
+        assertEquals(updater.writes, Arrays.asList("acme/create/true", "acme/update/true", "acme/update/true", "acme/updateMany/true"));
+        assertEquals(async.getWriteInstructionType(), String.class);
+    }
+
+    public void testFailedWriteCompletesTheFutureExceptionally() {
+        AsyncGeneralUpdater<String, String> async = AsyncGeneralUpdater.onVirtualThreads(new RecordingUpdater());
+        try {
+            async.delete("1", null).join();
+            fail("expected a CompletionException");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+            assertEquals(e.getCause().getMessage(), "no record with id 1");
+        }
+    }
+
+    public void testExecutorThreadKeepsItsOwnTenant() throws Exception {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> TenantContext.setTenantId("pool")).get();
+            RecordingUpdater updater = new RecordingUpdater();
+            AsyncGeneralUpdater<String, String> async = new VirtualThreadGeneralUpdater<>(updater, executor);
+
+            TenantContext.setTenantId("acme");
+            try {
+                async.replace(Collections.singletonMap("id", 1), null).join();
+            } finally {
+                TenantContext.reset();
+            }
+            async.createOrReplace(Collections.singletonMap("id", 2), null).join();
+
+            assertEquals(updater.writes, Arrays.asList("acme/replace/false", "null/createOrReplace/false"));
+            assertEquals(executor.submit(TenantContext::getTenantId).get(), "pool");
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
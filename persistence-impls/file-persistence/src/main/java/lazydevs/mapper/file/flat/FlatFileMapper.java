@@ -153,7 +153,7 @@ public abstract class FlatFileMapper<R> implements FileMapper {
                         entry -> "i" + entry.getKey(),
                         Map.Entry::getValue
                 ));
-        return SerDe.JSON.deserialize(templateEngine.generate(template, datapoints), type);
+        return templateEngine.generate(template, datapoints, SerDe.JSON, type);
     }
 
     protected  <T> T convert(Map<Integer, String> columnIndexToValueMap, Class<T> type) {
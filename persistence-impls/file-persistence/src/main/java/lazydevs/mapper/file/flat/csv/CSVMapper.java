@@ -5,13 +5,14 @@ import lazydevs.mapper.file.flat.dsv.DsvMapper;
 import lazydevs.mapper.file.flat.excel.CustomRowIterator;
 import lazydevs.mapper.file.utils.FileBatchIterator;
 import lazydevs.mapper.utils.BatchIterator;
-import lazydevs.mapper.utils.SerDe;
+import lazydevs.mapper.utils.Row;
+import lazydevs.mapper.utils.Row.Schema;
 import lazydevs.mapper.utils.engine.TemplateEngine;
+import lazydevs.persistence.util.Memo;
 import lombok.NonNull;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
-import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
 
@@ -20,21 +21,25 @@ import java.nio.charset.Charset;
 import java.util.*;
 
 public class CSVMapper extends FlatFileMapper<CSVRecord> {
-
+    // the schema of the parser the last record came from, so its other records share it
+    private final Memo<CSVParser, Schema> schemas = new Memo<>(parser -> Schema.of(parser.getHeaderNames().toArray(new String[0])));
 
     @Override
     protected Map<String, Object> convert(CSVRecord row, String template) {
-        Map<String, Object> convertedMap = new LinkedHashMap<>();
-        List<String> headerNames = row.getParser().getHeaderNames();
+        return convert(row, schemas.get(row.getParser()), template);
+    }
 
+    // the schema is made from the headers once per file and shared by its rows
+    private Map<String, Object> convert(CSVRecord row, Schema schema, String template) {
+        Row convertedMap = new Row(schema);
         for (int i = 0; i < row.size(); i++) {
-            String columnName = headerNames.get(i); // Get the column name
-            String columnValue = row.get(i); // Get the value of the current column
-            convertedMap.put(columnName, columnValue);
+            convertedMap.setColumn(i, row.get(i));
         }
+        // a short record has only the columns it has values for
+        convertedMap.retainColumns(row.size());
 
         if(template != null) {
-            return SerDe.JSON.deserializeToMap(TemplateEngine.getInstance().generate(template, convertedMap));
+            return TemplateEngine.getInstance().generateToMap(template, convertedMap);
         }else {
             return convertedMap;
         }
@@ -75,10 +80,11 @@ public class CSVMapper extends FlatFileMapper<CSVRecord> {
             // Get headers
             List<String> headers = csvParser.getHeaderNames();
             System.out.println("Headers: " + headers);
+            Schema schema = Schema.of(headers.toArray(new String[0]));
             return  new CSVFileBatchIterator<Map<String, Object>>(reader, csvParser,batchSize, noOfLinesToIgnore) {
                 @Override
                 public Map<String, Object> map(CSVRecord csvRecord) {
-                    return convert(csvRecord, template);
+                    return convert(csvRecord, schema, template);
                 }
             };
         }catch (Exception e){
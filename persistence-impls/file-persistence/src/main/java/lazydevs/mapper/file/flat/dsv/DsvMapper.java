@@ -4,6 +4,7 @@ import lazydevs.mapper.file.flat.FlatFileMapper;
 import lazydevs.mapper.file.flat.annotation.Column;
 import lazydevs.mapper.file.utils.FileBatchIterator;
 import lazydevs.mapper.utils.BatchIterator;
+import lazydevs.mapper.utils.Row;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.Setter;
@@ -30,7 +31,6 @@ import java.util.function.BiFunction;
 import static java.lang.String.valueOf;
 import static java.util.Arrays.stream;
 import static java.util.stream.Collectors.joining;
-import static java.util.stream.Collectors.toMap;
 
 /**
  * Created by Abhijeet Rai on 08/27/2018.
@@ -39,6 +39,7 @@ public class DsvMapper extends FlatFileMapper<String> {
     private final String delimiter;
     @Setter
     private String commentSymbol = "#";
+    private Row.Schema schema;// of the last line converted without a template; lines of a file mostly have the same column count
 
     public DsvMapper(String delimiter) {
         this.delimiter = delimiter;
@@ -130,11 +131,28 @@ public class DsvMapper extends FlatFileMapper<String> {
     @Override
     protected Map<String, Object> convert(String line, String template) {
         if (template == null)
-            return getColumnIndexToValueMap(line).entrySet().stream().collect(toMap(
-                    entry -> valueOf(entry.getKey()), Map.Entry::getValue));
+            return toRow(line);
         return convert(getColumnIndexToValueMap(line), template, Map.class);
     }
 
+    // the same as getColumnIndexToValueMap, keyed by the index as a String
+    private Row toRow(String line) {
+        String[] arr = line.split(this.delimiter);
+        Row.Schema schema = this.schema;
+        if (null == schema || schema.size() != arr.length) {
+            String[] columns = new String[arr.length];
+            for (int i = 0; i < arr.length; i++) {
+                columns[i] = valueOf(i);
+            }
+            this.schema = schema = Row.Schema.of(columns);
+        }
+        Object[] values = new Object[arr.length];
+        for (int i = 0; i < arr.length; i++) {
+            values[i] = arr[i].replaceAll(";", ",");
+        }
+        return new Row(schema, values);
+    }
+
     @Override
     protected <T> T convert(String line, String template, Class<T> type) {
         if (template == null)
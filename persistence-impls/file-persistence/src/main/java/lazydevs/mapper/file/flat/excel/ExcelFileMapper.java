@@ -27,7 +27,6 @@ import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import lazydevs.mapper.file.flat.FlatFileMapper;
 import lazydevs.mapper.file.utils.FileBatchIterator;
 import lazydevs.mapper.utils.BatchIterator;
-import lazydevs.mapper.utils.SerDe;
 import lazydevs.mapper.utils.engine.TemplateEngine;
 import lombok.Setter;
 
@@ -78,7 +77,7 @@ public class ExcelFileMapper<R> extends FlatFileMapper<Row> {
                             Map.Entry::getValue
                     ));
             if(template != null) {
-                return SerDe.JSON.deserializeToMap(TemplateEngine.getInstance().generate(template, datapoints));
+                return TemplateEngine.getInstance().generateToMap(template, datapoints);
             }else {
                 return datapoints;
             }
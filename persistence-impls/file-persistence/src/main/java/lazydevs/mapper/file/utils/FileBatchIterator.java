@@ -27,8 +27,13 @@ public abstract class FileBatchIterator<T,R> extends BatchIterator<T> {
 
     @Override
     public List<T> next() {
+        return next(new ArrayList<>());
+    }
+
+    @Override
+    public List<T> next(List<T> list) {
         int recordCount = 0;
-        List<T> list = new ArrayList<>();
+        list.clear();
         while(recordCount < super.batchSize && iterator.hasNext()){
             R line = iterator.next();
             if(noOfLinesToIgnore>0)
@@ -1,6 +1,8 @@
 package lazydevs.persistence.impl.file.general.fileMapper;
 
 import lazydevs.mapper.file.FileMapper;
+import lazydevs.mapper.file.flat.dsv.DsvMapper;
+import lazydevs.mapper.file.flat.fixedwidth.FixedWidthFileMapper;
 import lazydevs.mapper.utils.BatchIterator;
 import lazydevs.mapper.utils.reflection.InitDTO;
 import lazydevs.mapper.utils.reflection.ReflectionUtils;
@@ -9,8 +11,18 @@ import lazydevs.persistence.impl.file.general.ReadInstruction;
 import lazydevs.persistence.reader.GeneralReader;
 import lazydevs.persistence.reader.Page;
 
+import org.apache.commons.io.input.BoundedInputStream;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 
@@ -41,6 +53,68 @@ public class GeneralFileMapperReader extends AbstractGeneralFileReader {
         return fileMapper.readFileInBatches(readInstruction.getFilePath(), null, batchSize, readInstruction.getNoOfLinesToIgnore() );
     }
 
+    /**
+     * Splits a delimited or fixed width file into byte ranges of about equal size, each starting at the beginning of a
+     * line, and reads each with its own stream. The lines to ignore are ignored at the start of the file only. Other
+     * formats are not split, as a record of theirs can span lines.
+     */
+    @Override
+    public List<BatchIterator<Map<String, Object>>> findAllPartitioned(int partitions, int batchSize, ReadInstruction readInstruction, Map<String, Object> params) {
+        if (partitions <= 1 || !(fileMapper instanceof DsvMapper || fileMapper instanceof FixedWidthFileMapper)) {
+            return super.findAllPartitioned(partitions, batchSize, readInstruction, params);
+        }
+        ensureFileExists(readInstruction);
+        Path path = Paths.get(readInstruction.getFilePath());
+        List<BatchIterator<Map<String, Object>>> batchIterators = new ArrayList<>(partitions);
+        try {
+            long[] offsets = getLineAlignedOffsets(path, partitions);
+            for (int i = 0; i < partitions; i++) {
+                if (i > 0 && offsets[i] == offsets[i + 1]) {
+                    continue;
+                }
+                batchIterators.add(fileMapper.readFileInBatches(openRange(path, offsets[i], offsets[i + 1]), null, batchSize,
+                        0 == i ? readInstruction.getNoOfLinesToIgnore() : 0));
+            }
+        } catch (IOException | RuntimeException e) {
+            batchIterators.forEach(BatchIterator::close);
+            throw new RuntimeException("Exception occurred while partitioning the file = " + path, e);
+        }
+        return batchIterators;
+    }
+
+    // partitions + 1 offsets; each of the inner ones is moved forward to the start of the next line
+    private static long[] getLineAlignedOffsets(Path path, int partitions) throws IOException {
+        long[] offsets = new long[partitions + 1];
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            offsets[partitions] = size;
+            ByteBuffer buffer = ByteBuffer.allocate(8 * 1024);
+            for (int i = 1; i < partitions; i++) {
+                long position = Math.max(size * i / partitions - 1, offsets[i - 1]);// the line may start right at the offset
+                long lineStart = size;
+                search:
+                while (position < size) {
+                    buffer.clear();
+                    int read = channel.read(buffer, position);
+                    for (int j = 0; j < read; j++) {
+                        if (buffer.get(j) == '\n') {
+                            lineStart = position + j + 1;
+                            break search;
+                        }
+                    }
+                    position += read;
+                }
+                offsets[i] = Math.max(lineStart, offsets[i - 1]);
+            }
+        }
+        return offsets;
+    }
+
+    private static InputStream openRange(Path path, long start, long end) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ).position(start);
+        return BoundedInputStream.builder().setInputStream(Channels.newInputStream(channel)).setMaxCount(end - start).get();
+    }
+
     protected boolean ensureFileExists(ReadInstruction readInstruction){
         return Files.exists(Paths.get(readInstruction.getFilePath()));
     }
@@ -0,0 +1,39 @@
+package lazydevs.mapper.file.flat.csv;
+
+import lazydevs.mapper.utils.Row;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+/**
+ * @author Abhijeet Rai
+ */
+public class CSVMapperTest {
+
+    @Test
+    public void testRecordsOfAParserShareItsSchema() throws IOException {
+        CSVMapper csvMapper = new CSVMapper();
+        List<CSVRecord> records = CSVFormat.DEFAULT.withHeader().parse(new StringReader("id,name\n1,one\n2\n")).getRecords();
+        CSVParser other = CSVFormat.DEFAULT.withHeader().parse(new StringReader("id,name\n3,three\n"));
+
+        Row first = (Row) csvMapper.convert(records.get(0), (String) null);
+        Row second = (Row) csvMapper.convert(records.get(1), (String) null);
+        Row third = (Row) csvMapper.convert(other.iterator().next(), (String) null);
+
+        assertEquals(first, Map.of("id", "1", "name", "one"));
+        assertEquals(second, Map.of("id", "2"));
+        assertEquals(third, Map.of("id", "3", "name", "three"));
+        assertSame(second.getSchema(), first.getSchema());
+        assertNotSame(third.getSchema(), first.getSchema());
+    }
+}
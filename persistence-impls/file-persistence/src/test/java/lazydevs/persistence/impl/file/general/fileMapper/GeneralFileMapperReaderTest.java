@@ -1,7 +1,9 @@
 package lazydevs.persistence.impl.file.general.fileMapper;
 
 import lazydevs.mapper.file.flat.csv.CSVMapper;
+import lazydevs.mapper.file.flat.dsv.DsvMapper;
 import lazydevs.mapper.file.flat.excel.ExcelFileMapper;
+import lazydevs.mapper.utils.BatchIterator;
 import lazydevs.persistence.impl.file.general.ReadInstruction;
 import lazydevs.persistence.reader.GeneralTransformer;
 import org.apache.commons.csv.CSVFormat;
@@ -11,11 +13,16 @@ import org.testng.annotations.Test;
 import java.io.File;
 import java.io.IOException;
 import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static org.testng.Assert.*;
 
@@ -74,6 +81,38 @@ public class GeneralFileMapperReaderTest {
     public void testFindAllInBatch() {
     }
 
+    @Test
+    public void testFindAllPartitioned() throws IOException {
+        File file = File.createTempFile("partitioned", ".dsv");
+        file.deleteOnExit();
+        List<String> lines = new ArrayList<>();
+        lines.add("id|name");
+        IntStream.range(0, 1000).forEach(i -> lines.add(i + "|name-" + i));
+        Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+        ReadInstruction readInstruction = new ReadInstruction();
+        readInstruction.setFilePath(file.getAbsolutePath());
+        readInstruction.setNoOfLinesToIgnore(1);
+
+        GeneralFileMapperReader reader = new GeneralFileMapperReader(new DsvMapper("\\|"));
+        List<BatchIterator<Map<String, Object>>> partitions = reader.findAllPartitioned(4, 100, readInstruction, null);
+        assertEquals(partitions.size(), 4);
+        List<String> ids = new ArrayList<>();
+        for (BatchIterator<Map<String, Object>> partition : partitions) {
+            try (BatchIterator<Map<String, Object>> batchIterator = partition) {
+                int before = ids.size();
+                while (batchIterator.hasNext()) {
+                    batchIterator.next().forEach(row -> {
+                        assertEquals(row.get("1"), "name-" + row.get("0"));
+                        ids.add((String) row.get("0"));
+                    });
+                }
+                assertTrue(ids.size() - before > 0);
+            }
+        }
+        // every line exactly once, in file order as the partitions are in file order
+        assertEquals(ids, IntStream.range(0, 1000).mapToObj(String::valueOf).collect(Collectors.toList()));
+    }
+
     private File createFile(){
         ExcelFileMapper fileMapper = new ExcelFileMapper();
         Map<Integer, String> map = new HashMap<>();
@@ -1,11 +1,14 @@
 package lazdevs.peristence.mongo.reader.general;
 
 import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoCursor;
 import com.mongodb.client.MongoDatabase;
 
 import lazdevs.peristence.mongo.common.BaseMongoReader;
 import lazdevs.peristence.mongo.common.BaseMongoReader.BaseMongoQuery;
+import lazdevs.peristence.mongo.common.Find;
+import lazdevs.peristence.mongo.common.MongoQuery;
 import lazydevs.mapper.utils.BatchIterator;
 import lazydevs.mapper.utils.DefaultBatchIterator;
 import lazydevs.persistence.connection.ConnectionProvider;
@@ -16,11 +19,16 @@ import lombok.RequiredArgsConstructor;
 import org.bson.Document;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.stream.Collectors;
 import static lazdevs.peristence.mongo.common.BaseMongoReader.*;
+import static lazdevs.peristence.mongo.common.ReadMode.FIND;
 
 
 
@@ -58,7 +66,76 @@ public class MongoGeneralReader implements GeneralReader<MongoGeneralQuery, Obje
     @Override
     public BatchIterator<Map<String, Object>> findAllInBatch(int batchSize, MongoGeneralQuery query, Map<String, Object> params) {
         MongoCursor<Document> iterator = getMongoIterable(covert(query)).iterator();
-        return new DefaultBatchIterator<Map<String, Object>>((Iterable<Map<String, Object>>) iterator, batchSize);
+        return new DefaultBatchIterator<Map<String, Object>>((Iterator<Map<String, Object>>) (Iterator<?>) iterator, batchSize) {
+            @Override
+            public void close() {
+                iterator.close();
+            }
+        };
+    }
+
+    /**
+     * Splits a FIND into ranges of _id holding about the same number of documents; the boundaries are found by skipping
+     * along the _id index. Within a partition the sort of the query applies. Other read modes are not split.
+     */
+    @Override
+    public List<BatchIterator<Map<String, Object>>> findAllPartitioned(int partitions, int batchSize, MongoGeneralQuery query, Map<String, Object> params) {
+        MongoQuery mongoQuery = query.getQuery();
+        if (partitions <= 1 || !FIND.equals(mongoQuery.getReadMode())) {
+            return GeneralReader.super.findAllPartitioned(partitions, batchSize, query, params);
+        }
+        validate(mongoQuery);
+        Map<String, Object> filter = null == mongoQuery.getFind().getFilter() ? new HashMap<>() : mongoQuery.getFind().getFilter();
+        List<Object> boundaries = getPartitionBoundaries(partitions, query.getCollection(), filter);
+        if (boundaries.isEmpty()) {
+            return GeneralReader.super.findAllPartitioned(partitions, batchSize, query, params);
+        }
+        List<BatchIterator<Map<String, Object>>> batchIterators = new ArrayList<>(boundaries.size() + 1);
+        try {
+            for (int i = 0; i <= boundaries.size(); i++) {
+                Map<String, Object> idRange = new HashMap<>();
+                if (i > 0) {
+                    idRange.put("$gte", boundaries.get(i - 1));
+                }
+                if (i < boundaries.size()) {
+                    idRange.put("$lt", boundaries.get(i));
+                }
+                batchIterators.add(findAllInBatch(batchSize, partition(query, filter, idRange), params));
+            }
+        } catch (RuntimeException e) {
+            batchIterators.forEach(BatchIterator::close);
+            throw e;
+        }
+        return batchIterators;
+    }
+
+    // the distinct _ids that start the 2nd to last partitions
+    private List<Object> getPartitionBoundaries(int partitions, String collectionName, Map<String, Object> filter) {
+        MongoCollection<Document> collection = this.mongoDatabaseConnectionProvider.getConnection().getCollection(collectionName);
+        long count = collection.countDocuments(new Document(filter));
+        List<Object> boundaries = new ArrayList<>();
+        for (int i = 1; i < partitions; i++) {
+            long skip = count * i / partitions;
+            if (skip == 0 || skip > Integer.MAX_VALUE) {
+                continue;
+            }
+            Document first = collection.find(new Document(filter)).sort(new Document("_id", 1)).projection(new Document("_id", 1))
+                    .skip((int) skip).limit(1).first();
+            if (null != first && (boundaries.isEmpty() || !Objects.equals(boundaries.get(boundaries.size() - 1), first.get("_id")))) {
+                boundaries.add(first.get("_id"));
+            }
+        }
+        return boundaries;
+    }
+
+    private MongoGeneralQuery partition(MongoGeneralQuery query, Map<String, Object> filter, Map<String, Object> idRange) {
+        Find find = query.getQuery().getFind();
+        Find partitionFind = Find.builder()
+                .filter(filter.isEmpty() ? Collections.singletonMap("_id", idRange) : Collections.singletonMap("$and", Arrays.asList(filter, Collections.singletonMap("_id", idRange))))
+                .projection(find.getProjection())
+                .sort(find.getSort())
+                .build();
+        return new MongoGeneralQuery(query.getCollection(), MongoQuery.findQuery(partitionFind, query.getQuery().getBatchSize()));
     }
 
     @Override
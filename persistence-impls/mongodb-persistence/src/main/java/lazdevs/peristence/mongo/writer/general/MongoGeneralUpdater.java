@@ -1,15 +1,28 @@
 package lazdevs.peristence.mongo.writer.general;
 
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteResult;
 import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.DeleteOneModel;
 import com.mongodb.client.model.FindOneAndReplaceOptions;
 import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
 import com.mongodb.client.result.UpdateResult;
 import lazdevs.peristence.mongo.common.MongoQuery;
 import lazydevs.persistence.connection.ConnectionProvider;
 
-import lazydevs.persistence.writer.general.GeneralUpdater;
+import lazydevs.persistence.writer.general.BulkGeneralUpdater;
+import lazydevs.persistence.writer.general.BulkOperation;
+import lazydevs.persistence.writer.general.BulkResult;
 import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
 import org.bson.Document;
 import org.bson.conversions.Bson;
 
@@ -20,7 +33,14 @@ import static java.util.stream.Collectors.toList;
 import static lazdevs.peristence.mongo.common.ReadMode.FIND;
 import static lazydevs.persistence.writer.general.TemplatisedWriteInstruction.process;
 
-public class MongoGeneralUpdater extends MongoGeneralAppender implements GeneralUpdater<MongoQuery, MongoWriteInstruction> {
+/**
+ * The bulk write sends each run of consecutive operations on the same collection as one ordered bulk write. Mongo tells
+ * how many of them found a document, not which, so the records written are reported as given and the ones that found
+ * none are counted in {@link BulkResult#getUnmatched()}. The list methods write one record at a time, and return the
+ * documents as found in the collection after the write.
+ */
+@Slf4j
+public class MongoGeneralUpdater extends MongoGeneralAppender implements BulkGeneralUpdater<MongoQuery, MongoWriteInstruction> {
 
     public MongoGeneralUpdater(@NonNull ConnectionProvider<MongoDatabase> connectionProvider, @NonNull String defaultCollectionName) {
        super(connectionProvider, defaultCollectionName);
@@ -47,11 +67,14 @@ public class MongoGeneralUpdater extends MongoGeneralAppender implements General
     @Override
     public Map<String, Object> update(Map<String, Object> t, MongoWriteInstruction writeInstruction) {
         writeInstruction = process(t, writeInstruction);
+        return getCollection(writeInstruction)
+                .findOneAndUpdate(getDocumentWithId(t), getUpdate(t, writeInstruction), new FindOneAndUpdateOptions().returnDocument(AFTER));
+    }
+
+    private Bson getUpdate(Map<String, Object> t, MongoWriteInstruction writeInstruction) {
         Map<String, Object> tWithoutId = new HashMap<>(t);
         tWithoutId.remove("_id");
-        Bson update = null == writeInstruction || null == writeInstruction.getDocument() ? new Document("$set", tWithoutId) :  new Document(writeInstruction.getDocument());
-        return getCollection(writeInstruction)
-                .findOneAndUpdate(getDocumentWithId(t), update, new FindOneAndUpdateOptions().returnDocument(AFTER));
+        return null == writeInstruction || null == writeInstruction.getDocument() ? new Document("$set", tWithoutId) :  new Document(writeInstruction.getDocument());
     }
 
 
@@ -87,11 +110,137 @@ public class MongoGeneralUpdater extends MongoGeneralAppender implements General
         return getCollection(writeInstruction).findOneAndDelete(new Document("_id", id));
     }
 
+    @Override
+    public List<Map<String, Object>> replace(List<Map<String, Object>> list, MongoWriteInstruction writeInstruction) {
+        return list.stream().map(t -> replace(t, writeInstruction)).collect(toList());
+    }
+
+    @Override
+    public List<Map<String, Object>> update(List<Map<String, Object>> list, MongoWriteInstruction writeInstruction) {
+        return list.stream().map(t -> update(t, writeInstruction)).collect(toList());
+    }
+
+    @Override
+    public List<Map<String, Object>> createOrReplace(List<Map<String, Object>> list, MongoWriteInstruction writeInstruction) {
+        return list.stream().map(t -> createOrReplace(t, writeInstruction)).collect(toList());
+    }
+
     @Override
     public List<Map<String, Object>> delete(List<Map<String, Object>> list, MongoWriteInstruction writeInstruction) {
-        return list.stream()
-                   .map(e -> delete(e, null))
-                   .collect(toList());
+        return list.stream().map(t -> delete(t, writeInstruction)).collect(toList());
+    }
+
+    @Override
+    public BulkResult bulkWrite(List<BulkOperation<MongoWriteInstruction>> operations) {
+        Run run = new Run(operations);
+        boolean written = true;
+        for (int i = 0; i < operations.size() && written; i++) {
+            written = run.add(i);
+        }
+        if (written) {
+            run.write();
+        }
+        for (int i = run.rows.size(); i < operations.size(); i++) {
+            run.rows.add(BulkResult.RowResult.notExecuted(i, operations.get(i).getRecord()));
+        }
+        return new BulkResult(run.rows, run.unmatched);
+    }
+
+    // the operations of a bulk write, the models of the ones not reported yet are written together
+    private final class Run {
+        private final List<BulkOperation<MongoWriteInstruction>> operations;
+        private final List<BulkResult.RowResult> rows;
+        private final List<WriteModel<Document>> models = new ArrayList<>();
+        private MongoCollection<Document> collection;
+        private Long unmatched = 0L;
+
+        private Run(List<BulkOperation<MongoWriteInstruction>> operations) {
+            this.operations = operations;
+            this.rows = new ArrayList<>(operations.size());
+        }
+
+        // false if the operation, or one before it, failed
+        private boolean add(int i) {
+            BulkOperation<MongoWriteInstruction> operation = operations.get(i);
+            MongoCollection<Document> operationCollection;
+            WriteModel<Document> model;
+            try {
+                MongoWriteInstruction writeInstruction = process(operation.getRecord(), operation.getWriteInstruction());
+                operationCollection = getCollection(writeInstruction);
+                model = getWriteModel(operation.getAction(), operation.getRecord(), writeInstruction);
+            } catch (RuntimeException e) {
+                if (write()) {
+                    rows.add(BulkResult.RowResult.failed(i, operation.getRecord(), e));
+                }
+                return false;
+            }
+            if (null != collection && !collection.getNamespace().equals(operationCollection.getNamespace()) && !write()) {
+                return false;
+            }
+            collection = operationCollection;
+            models.add(model);
+            return true;
+        }
+
+        // writes the models, the ones of the operations from rows.size() on; false if one of them failed
+        private boolean write() {
+            if (models.isEmpty()) {
+                return true;
+            }
+            int from = rows.size();
+            int written = models.size();
+            BulkWriteResult result;
+            RuntimeException failure = null;
+            try {
+                result = collection.bulkWrite(models, new BulkWriteOptions().ordered(true));
+            } catch (MongoBulkWriteException e) {
+                result = e.getWriteResult();
+                if (e.getWriteErrors().isEmpty()) {
+                    // only the write concern was not met, every write was applied
+                    log.warn("Write concern error on the bulk write of {} operations on {}", models.size(), collection.getNamespace(), e);
+                } else {
+                    written = e.getWriteErrors().get(0).getIndex();
+                    failure = e;
+                }
+            } catch (RuntimeException e) {
+                result = null;
+                written = 0;
+                failure = e;
+            }
+            countUnmatched(models.subList(0, written), result);
+            models.clear();
+            for (int i = from; i < from + written; i++) {
+                rows.add(BulkResult.RowResult.success(i, operations.get(i).getRecord()));
+            }
+            if (null != failure) {
+                rows.add(BulkResult.RowResult.failed(from + written, operations.get(from + written).getRecord(), failure));
+            }
+            return null == failure;
+        }
+
+        // the models that have to find a document, less the ones that did; unknown once a write is not acknowledged
+        private void countUnmatched(List<WriteModel<Document>> written, BulkWriteResult result) {
+            long expected = written.stream().filter(model -> !(model instanceof InsertOneModel)).count();
+            if (0 == expected || null == unmatched) {
+                return;
+            }
+            if (null == result || !result.wasAcknowledged()) {
+                unmatched = null;
+                return;
+            }
+            unmatched += expected - result.getMatchedCount() - result.getDeletedCount() - result.getUpserts().size();
+        }
+    }
+
+    private WriteModel<Document> getWriteModel(BulkOperation.Action action, Map<String, Object> t, MongoWriteInstruction writeInstruction) {
+        switch (action) {
+            case CREATE: return new InsertOneModel<>(new Document(t));
+            case UPDATE: return new UpdateOneModel<>(getDocumentWithId(t), getUpdate(t, writeInstruction));
+            case REPLACE: return new ReplaceOneModel<>(getDocumentWithId(t), new Document(t), new ReplaceOptions().upsert(false));
+            case CREATE_OR_REPLACE: return new ReplaceOneModel<>(getDocumentWithId(t), new Document(t), new ReplaceOptions().upsert(true));
+            case DELETE: return new DeleteOneModel<>(getDocumentWithId(t));
+            default: throw new IllegalArgumentException("Unrecognized action = " + action);
+        }
     }
 
     private Document getDocumentWithId(Map<String, Object> t){
@@ -0,0 +1,194 @@
+package lazdevs.peristence.mongo.writer.general;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.MongoNamespace;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import com.mongodb.bulk.WriteConcernError;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.InsertOneModel;
+import com.mongodb.client.model.WriteModel;
+import lazydevs.persistence.writer.general.BulkOperation;
+import lazydevs.persistence.writer.general.BulkResult;
+import org.bson.BsonDocument;
+import org.bson.BsonInt32;
+import org.testng.annotations.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static lazydevs.persistence.writer.general.BulkResult.Status.FAILED;
+import static lazydevs.persistence.writer.general.BulkResult.Status.NOT_EXECUTED;
+import static lazydevs.persistence.writer.general.BulkResult.Status.SUCCESS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+/**
+ * @author Abhijeet Rai
+ */
+@Test
+public class MongoGeneralUpdaterTest {
+
+    // collections that record their bulk writes as "collection:models" and answer them with the queued outcomes
+    private static class Database {
+        private final List<String> writes = new ArrayList<>();
+        private final Deque<Object> outcomes = new ArrayDeque<>();
+
+        MongoDatabase get() {
+            return (MongoDatabase) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{MongoDatabase.class}, (proxy, method, args) -> {
+                if ("getCollection".equals(method.getName())) {
+                    return collection((String) args[0]);
+                }
+                throw new UnsupportedOperationException(method.getName());
+            });
+        }
+
+        private MongoCollection<?> collection(String name) {
+            return (MongoCollection<?>) Proxy.newProxyInstance(getClass().getClassLoader(), new Class[]{MongoCollection.class}, (proxy, method, args) -> {
+                switch (method.getName()) {
+                    case "getNamespace":
+                        return new MongoNamespace("db", name);
+                    case "bulkWrite":
+                        List<WriteModel<?>> models = (List<WriteModel<?>>) args[0];
+                        writes.add(name + ":" + models.stream().map(m -> m.getClass().getSimpleName().replace("Model", "")).collect(Collectors.joining(",")));
+                        Object outcome = outcomes.poll();
+                        if (outcome instanceof RuntimeException) {
+                            throw (RuntimeException) outcome;
+                        }
+                        return null != outcome ? outcome : everyOneFound(models);
+                    default:
+                        throw new UnsupportedOperationException(method.getName());
+                }
+            });
+        }
+    }
+
+    // every insert inserted, every other model found its document
+    private static BulkWriteResult everyOneFound(List<WriteModel<?>> models) {
+        int inserted = (int) models.stream().filter(model -> model instanceof InsertOneModel).count();
+        int deleted = (int) models.stream().filter(model -> model instanceof DeleteOneModel).count();
+        int matched = models.size() - inserted - deleted;
+        return BulkWriteResult.acknowledged(inserted, matched, deleted, matched, Collections.emptyList(), Collections.emptyList());
+    }
+
+    private static Map<String, Object> record(Object id) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("_id", id);
+        map.put("name", "name-" + id);
+        return map;
+    }
+
+    private static MongoWriteInstruction in(String collectionName) {
+        return new MongoWriteInstruction(collectionName, null);
+    }
+
+    private static List<BulkResult.Status> statuses(BulkResult result) {
+        return result.getRows().stream().map(BulkResult.RowResult::getStatus).collect(Collectors.toList());
+    }
+
+    private static MongoBulkWriteException writeError(int index, BulkWriteResult result) {
+        return new MongoBulkWriteException(result, Arrays.asList(new BulkWriteError(11000, "duplicate key", new BsonDocument(), index)),
+                null, new ServerAddress(), Collections.emptySet());
+    }
+
+    public void testOneBulkWritePerRunOfACollection() {
+        Database database = new Database();
+        MongoGeneralUpdater updater = new MongoGeneralUpdater(database.get(), "main");
+
+        BulkResult result = updater.bulkWrite(Arrays.asList(
+                BulkOperation.create(record(1), null),
+                BulkOperation.update(record(2), in("main")),
+                BulkOperation.delete(record(3), in("other")),
+                BulkOperation.createOrReplace(record(4), in("other")),
+                BulkOperation.replace(record(5), null)));
+
+        assertEquals(database.writes, Arrays.asList("main:InsertOne,UpdateOne", "other:DeleteOne,ReplaceOne", "main:ReplaceOne"));
+        assertEquals(statuses(result), Collections.nCopies(5, SUCCESS));
+        assertEquals(result.getUnmatched(), Long.valueOf(0));
+        assertEquals(result.getRows().get(3).getIndex(), 3);
+        assertEquals(result.getRows().get(3).getRecord(), record(4));
+    }
+
+    public void testWriteErrorFailsItsRowAndStopsTheRest() {
+        Database database = new Database();
+        database.outcomes.add(BulkWriteResult.acknowledged(2, 0, 0, 0, Collections.emptyList(), Collections.emptyList()));
+        database.outcomes.add(writeError(1, BulkWriteResult.acknowledged(0, 1, 0, 1, Collections.emptyList(), Collections.emptyList())));
+        MongoGeneralUpdater updater = new MongoGeneralUpdater(database.get(), "main");
+
+        BulkResult result = updater.bulkWrite(Arrays.asList(
+                BulkOperation.create(record(0), null),
+                BulkOperation.create(record(1), null),
+                BulkOperation.update(record(2), in("other")),
+                BulkOperation.create(record(3), in("other")),
+                BulkOperation.create(record(4), in("other")),
+                BulkOperation.create(record(5), null)));
+
+        assertEquals(database.writes, Arrays.asList("main:InsertOne,InsertOne", "other:UpdateOne,InsertOne,InsertOne"));
+        assertEquals(statuses(result), Arrays.asList(SUCCESS, SUCCESS, SUCCESS, FAILED, NOT_EXECUTED, NOT_EXECUTED));
+        assertEquals(result.getFailures().get(0).getIndex(), 3);
+        assertEquals(result.getFailures().get(0).getRecord().get("_id"), 3);
+        assertEquals(result.getUnmatched(), Long.valueOf(0));
+    }
+
+    public void testInvalidRecordIsFailedAfterTheOnesBeforeItAreWritten() {
+        Database database = new Database();
+        MongoGeneralUpdater updater = new MongoGeneralUpdater(database.get(), "main");
+
+        BulkResult result = updater.bulkWrite(Arrays.asList(
+                BulkOperation.create(record(0), null),
+                BulkOperation.update(Collections.singletonMap("name", "no id"), null),
+                BulkOperation.create(record(2), null)));
+
+        assertEquals(database.writes, Arrays.asList("main:InsertOne"));
+        assertEquals(statuses(result), Arrays.asList(SUCCESS, FAILED, NOT_EXECUTED));
+        assertEquals(result.getRows().get(1).getError().getClass(), IllegalArgumentException.class);
+    }
+
+    public void testWriteConcernErrorStillWritesEveryRow() {
+        Database database = new Database();
+        database.outcomes.add(new MongoBulkWriteException(BulkWriteResult.acknowledged(1, 1, 0, 1, Collections.emptyList(), Collections.emptyList()),
+                Collections.emptyList(), new WriteConcernError(64, "WriteConcernFailed", "waiting for replication timed out", new BsonDocument()),
+                new ServerAddress(), Collections.emptySet()));
+        MongoGeneralUpdater updater = new MongoGeneralUpdater(database.get(), "main");
+
+        BulkResult result = updater.bulkWrite(Arrays.asList(
+                BulkOperation.create(record(0), null),
+                BulkOperation.update(record(1), null),
+                BulkOperation.delete(record(2), in("other"))));
+
+        assertEquals(database.writes, Arrays.asList("main:InsertOne,UpdateOne", "other:DeleteOne"));
+        assertEquals(statuses(result), Collections.nCopies(3, SUCCESS));
+    }
+
+    public void testUnmatchedOperationsAreCounted() {
+        Database database = new Database();
+        // of an update, a replace, a delete and two upserts: the replace and the delete found nothing, one upsert inserted
+        database.outcomes.add(BulkWriteResult.acknowledged(0, 2, 0, 2, Arrays.asList(new BulkWriteUpsert(4, new BsonInt32(5))), Collections.emptyList()));
+        database.outcomes.add(BulkWriteResult.unacknowledged());
+        MongoGeneralUpdater updater = new MongoGeneralUpdater(database.get(), "main");
+
+        BulkResult result = updater.bulkWrite(Arrays.asList(
+                BulkOperation.update(record(1), null),
+                BulkOperation.replace(record(2), null),
+                BulkOperation.delete(record(3), null),
+                BulkOperation.createOrReplace(record(4), null),
+                BulkOperation.createOrReplace(record(5), null)));
+        assertEquals(result.getUnmatched(), Long.valueOf(2));
+        assertEquals(statuses(result), Collections.nCopies(5, SUCCESS));
+
+        BulkResult unacknowledged = updater.bulkWrite(Arrays.asList(BulkOperation.delete(record(1), null)));
+        assertNull(unacknowledged.getUnmatched());
+    }
+}
@@ -1,5 +1,7 @@
 package lazydevs.mapper.rest;
 
+import lazydevs.mapper.utils.BatchIterator;
+import lazydevs.mapper.utils.DefaultBatchIterator;
 import lazydevs.mapper.utils.SerDe;
 import lombok.Getter;
 import lombok.NonNull;
@@ -45,6 +47,12 @@ public class RestOutput implements Closeable {
         return null == payloadAsString ? serDe.deserializeToListOfMap(payloadInputStream) : serDe.deserializeToListOfMap(payloadAsString);
     }
 
+    /**
+     * Reads a list payload incrementally when it came as a stream, instead of materialising the whole response.
+     */
+    public BatchIterator<Map<String, Object>> getPayloadAsBatchIteratorOfMap(SerDe serDe, int batchSize){
+        return null == payloadAsString ? serDe.deserializeToBatchIteratorOfMap(payloadInputStream, batchSize) : new DefaultBatchIterator<>(serDe.deserializeToListOfMap(payloadAsString), batchSize);
+    }
 
     public Map<String, Object> getJsonPayloadAsMap(){
         return getPayloadAsMap(SerDe.JSON);
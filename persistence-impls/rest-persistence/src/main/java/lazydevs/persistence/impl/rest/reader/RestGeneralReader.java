@@ -17,6 +17,7 @@ import lazydevs.persistence.reader.Page;
 import lazydevs.persistence.reader.Page.PageRequest;
 import lazydevs.persistence.util.ConditionEvaluator;
 import lazydevs.persistence.util.Conditional;
+import lazydevs.persistence.util.Memo;
 import lazydevs.persistence.util.ParseUtils;
 import lazydevs.services.basic.exception.RESTException;
 import lazydevs.services.basic.exception.ServerException;
@@ -27,6 +28,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.apache.http.HttpStatus;
 
 import java.util.*;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 import static java.lang.String.format;
@@ -184,7 +186,7 @@ public class RestGeneralReader implements GeneralReader<RestGeneralReader.RestIn
             return;
         }
         for(ExceptionHandling rule : exceptionHandlingRules){
-            if(ConditionEvaluator.evaluate(rule.getFailureCondition(), payloadAsMap)){
+            if(rule.isFailure(payloadAsMap)){
                 log.warn("API failure detected for rule : {}", rule);
                 // Extract error details from response
                 String message = extractErrorMessage(rule.getErrorResponse(), payloadAsMap);
@@ -275,6 +277,13 @@ public class RestGeneralReader implements GeneralReader<RestGeneralReader.RestIn
     public static class ExceptionHandling{
         private ConditionEvaluator.ConditionRequest failureCondition;
         private ErrorResponse errorResponse;
+        @Getter(AccessLevel.NONE) @ToString.Exclude
+        private final transient Memo<ConditionEvaluator.ConditionRequest, Predicate<Map<String, Object>>> compiledFailureCondition = new Memo<>(ConditionEvaluator::compile);
+
+        // the failure condition compiled once per rule, not for every response
+        boolean isFailure(Map<String, Object> payloadAsMap) {
+            return compiledFailureCondition.get(failureCondition).test(payloadAsMap);
+        }
     }
 
     @Getter @Setter @ToString
@@ -27,9 +27,9 @@ public class RestGeneralAppender implements GeneralAppender<RestInstruction> {
         if(restInstruction.isSkipCallOnNullPayload() && restInstruction.getRequest().getPayload() == null) {
             return t;
         }
-        String str = TemplateEngine.getInstance().generate(SerDe.JSON.serialize(restInstruction), t);
+        RestInstruction generated = TemplateEngine.getInstance().generate(SerDe.JSON.serialize(restInstruction), t, SerDe.JSON, RestInstruction.class);
         restInstruction.setTransformer(transformer);
-        return restGeneralReader.findOne(SerDe.JSON.deserialize(str, RestInstruction.class), (Map<String, Object>) null);
+        return restGeneralReader.findOne(generated, (Map<String, Object>) null);
     }
 
     @Override
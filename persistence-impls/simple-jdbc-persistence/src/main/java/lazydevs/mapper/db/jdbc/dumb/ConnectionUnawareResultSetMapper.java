@@ -6,6 +6,7 @@ import lazydevs.mapper.db.jdbc.simple.PreparedStatementSetter;
 import lazydevs.mapper.db.jdbc.util.SimpleUtils;
 import lazydevs.mapper.db.jdbc.util.ResultSetBatchIterator;
 import lazydevs.mapper.utils.BatchIterator;
+import lazydevs.mapper.utils.Row;
 import lazydevs.persistence.reader.Page;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -151,10 +152,15 @@ public class ConnectionUnawareResultSetMapper<T> {
             LOGGER.trace(debugMessage);
             ps.setFetchSize(batchSize);
             return new ResultSetBatchIterator<X>(ps.executeQuery(), batchSize, ps,connection) {
+                private Row.Schema schema;
+
                 @Override
                 public X map(ResultSet rs, Set<String> columnsAvailable) {
                     if(isMap){
-                        return (X) convertRowToMap(rs);
+                        if(null == schema){
+                            schema = getSchema(rs);
+                        }
+                        return (X) convertRowToMap(rs, schema);
                     }
                     return (X) convertToType(rs, columnsAvailable);
                 }
@@ -183,13 +189,18 @@ public class ConnectionUnawareResultSetMapper<T> {
     };
 
     private class RowMapContainer extends Container<List<Map<String, Object>>> {
+        private Row.Schema schema;
+
         protected RowMapContainer() {
             super(new ArrayList<>());
 
         }
         @Override
         void contain(ResultSet rs) {
-            super.x.add(convertRowToMap(rs));
+            if(null == schema){
+                schema = getSchema(rs);
+            }
+            super.x.add(convertRowToMap(rs, schema));
         }
     };
 
@@ -212,13 +223,32 @@ public class ConnectionUnawareResultSetMapper<T> {
     }
 
     protected Map<String, Object> convertRowToMap(ResultSet rs){
+        return convertRowToMap(rs, getSchema(rs));
+    }
+
+    /**
+     * The rows of a result set share one schema, so it is read from the metadata once per query, not once per row.
+     */
+    protected Map<String, Object> convertRowToMap(ResultSet rs, Row.Schema schema){
+        try {
+            Row row = new Row(schema);
+            for (int i = 0; i < schema.getColumnCount(); i++) {
+                row.setColumn(i, rs.getObject(i + 1));
+            }
+            return row;
+        }catch (SQLException e){
+            throw new RuntimeException("", e);
+        }
+    }
+
+    protected Row.Schema getSchema(ResultSet rs){
         try {
-            Map<String, Object> row = new LinkedHashMap<>();
             int count = rs.getMetaData().getColumnCount();
+            String[] columns = new String[count];
             for (int i = 1; i <= count; i++) {
-                row.put(rs.getMetaData().getColumnLabel(i), rs.getObject(i));
+                columns[i - 1] = rs.getMetaData().getColumnLabel(i);
             }
-            return row;
+            return Row.Schema.of(columns);
         }catch (SQLException e){
             throw new RuntimeException("", e);
         }
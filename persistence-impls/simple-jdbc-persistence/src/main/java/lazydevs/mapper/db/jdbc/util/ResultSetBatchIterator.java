@@ -37,9 +37,14 @@ public abstract class ResultSetBatchIterator<T> extends BatchIterator<T> {
 
     @Override
     public List<T> next() {
+        return next(new ArrayList<>());
+    }
+
+    @Override
+    public List<T> next(List<T> list) {
         if(hasNext()) {
             int recordCount = 0;
-            List<T> list = new ArrayList<>();
+            list.clear();
             try {
                 for (int i = 1; i <= resultSet.getMetaData().getColumnCount(); i++) {
                     columnNamesAvailableinRs.add(resultSet.getMetaData().getColumnLabel(i).toLowerCase());
@@ -8,9 +8,13 @@ import lazydevs.persistence.reader.Page;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
+import static java.lang.String.format;
+
 /**
  * @author Abhijeet Rai
  */
@@ -56,6 +60,71 @@ public class JdbcGeneralReader implements GeneralReader<JdbcOperation, Object> {
     public BatchIterator<Map<String, Object>> findAllInBatch(int batchSize, JdbcOperation query, Map<String, Object> params) {
         return getResultSetMapper().findAllRowsAsMapInBatch(query.getNativeSQL(), batchSize, query.getParamsAsArr());
     }
+
+    /**
+     * Splits the result into ranges of {@link JdbcOperation#getPartitionColumn()} of about equal width between its min and
+     * max, each read with its own connection. Rows where it is null are in the first partition. Without a partition
+     * column the result is not split.
+     */
+    @Override
+    public List<BatchIterator<Map<String, Object>>> findAllPartitioned(int partitions, int batchSize, JdbcOperation query, Map<String, Object> params) {
+        String column = query.getPartitionColumn();
+        if (partitions <= 1 || null == column) {
+            return GeneralReader.super.findAllPartitioned(partitions, batchSize, query, params);
+        }
+        List<Long> boundaries = getPartitionBoundaries(partitions, query);
+        if (boundaries.isEmpty()) {
+            return GeneralReader.super.findAllPartitioned(partitions, batchSize, query, params);
+        }
+        String sql = query.getNativeSQL();
+        List<BatchIterator<Map<String, Object>>> batchIterators = new ArrayList<>(boundaries.size() + 1);
+        try {
+            batchIterators.add(findPartition(batchSize, query, format("select * from (%s) partitioned where %2$s < ? or %2$s is null", sql, column), boundaries.get(0)));
+            for (int i = 1; i < boundaries.size(); i++) {
+                batchIterators.add(findPartition(batchSize, query, format("select * from (%s) partitioned where %2$s >= ? and %2$s < ?", sql, column), boundaries.get(i - 1), boundaries.get(i)));
+            }
+            batchIterators.add(findPartition(batchSize, query, format("select * from (%s) partitioned where %s >= ?", sql, column), boundaries.get(boundaries.size() - 1)));
+        } catch (RuntimeException e) {
+            batchIterators.forEach(BatchIterator::close);
+            throw e;
+        }
+        return batchIterators;
+    }
+
+    // the distinct values that start the 2nd to last partitions, none if the result is empty or has a single value
+    private List<Long> getPartitionBoundaries(int partitions, JdbcOperation query) {
+        String column = query.getPartitionColumn();
+        List<Map<String, Object>> range = getResultSetMapper().findAllRowsAsMap(
+                format("select min(%1$s) minValue, max(%1$s) maxValue from (%2$s) partitioned", column, query.getNativeSQL()), query.getParamsAsArr());
+        List<Long> boundaries = new ArrayList<>();
+        Object[] minAndMax = range.get(0).values().toArray();
+        if (null == minAndMax[0] || null == minAndMax[1]) {
+            return boundaries;
+        }
+        if (!(minAndMax[0] instanceof Number) || !(minAndMax[1] instanceof Number)) {
+            throw new IllegalArgumentException(format("The partitionColumn '%s' is not numeric. min = %s, max = %s", column, minAndMax[0], minAndMax[1]));
+        }
+        long min = ((Number) minAndMax[0]).longValue();
+        long max = ((Number) minAndMax[1]).longValue();
+        double width = ((double) max - min) / partitions;
+        for (int i = 1; i < partitions; i++) {
+            long boundary = min + (long) Math.ceil(width * i);
+            if (boundary > min && boundary <= max && (boundaries.isEmpty() || boundary > boundaries.get(boundaries.size() - 1))) {
+                boundaries.add(boundary);
+            }
+        }
+        return boundaries;
+    }
+
+    private BatchIterator<Map<String, Object>> findPartition(int batchSize, JdbcOperation query, String sql, Object... boundaries) {
+        List<JdbcParam> params = new ArrayList<>();
+        if (null != query.getParams()) {
+            params.addAll(query.getParams());
+        }
+        Arrays.stream(boundaries).map(JdbcParam::new).forEach(params::add);
+        log.debug("partition query = {}, params = {}", sql, params);
+        return getResultSetMapper().findAllRowsAsMapInBatch(sql, batchSize, params.toArray(new JdbcParam[0]));
+    }
     
 
     @Override
@@ -5,7 +5,9 @@ import lazydevs.mapper.db.jdbc.JdbcRepository;
 import lazydevs.mapper.db.jdbc.simple.EntityAwarePreparedStatementSetter;
 import lazydevs.mapper.utils.engine.TemplateEngine;
 import lazydevs.persistence.connection.ConnectionProvider;
-import lazydevs.persistence.writer.general.GeneralUpdater;
+import lazydevs.persistence.writer.general.BulkGeneralUpdater;
+import lazydevs.persistence.writer.general.BulkOperation;
+import lazydevs.persistence.writer.general.BulkResult;
 import lombok.extern.slf4j.Slf4j;
 
 import javax.sql.DataSource;
@@ -19,10 +21,13 @@ import java.util.stream.Collectors;
 import static java.lang.String.format;
 
 /**
+ * The bulk write runs each run of consecutive operations with the same action and JdbcOperation as one JDBC batch, in
+ * a transaction of its own; when a batch fails, all its records are reported as failed.
+ *
  * @author Abhijeet Rai
  */
 @Slf4j
-public class JdbcGeneralUpdater implements GeneralUpdater<JdbcOperation, JdbcOperation> {
+public class JdbcGeneralUpdater implements BulkGeneralUpdater<JdbcOperation, JdbcOperation> {
     private final ConnectionProvider<DataSource> connectionProvider;
 
     public JdbcGeneralUpdater(ConnectionProvider<DataSource> connectionProvider) {
@@ -99,6 +104,44 @@ public class JdbcGeneralUpdater implements GeneralUpdater<JdbcOperation, JdbcOpe
     }
 
 
+    @Override
+    public BulkResult bulkWrite(List<BulkOperation<JdbcOperation>> operations) {
+        List<BulkResult.RowResult> rows = new ArrayList<>(operations.size());
+        boolean failed = false;
+        int from = 0;
+        while (from < operations.size()) {
+            BulkOperation<JdbcOperation> first = operations.get(from);
+            int to = from + 1;
+            while (to < operations.size() && first.getAction() == operations.get(to).getAction() && first.getWriteInstruction() == operations.get(to).getWriteInstruction()) {
+                to++;
+            }
+            List<Map<String, Object>> batch = operations.subList(from, to).stream().map(BulkOperation::getRecord).collect(Collectors.toList());
+            if (failed) {
+                for (int i = 0; i < batch.size(); i++) {
+                    rows.add(BulkResult.RowResult.notExecuted(from + i, batch.get(i)));
+                }
+            } else {
+                try {
+                    if (BulkOperation.Action.CREATE_OR_REPLACE == first.getAction()) {
+                        createOrReplace(batch, first.getWriteInstruction());
+                    } else {
+                        executeUpdate(batch, first.getWriteInstruction());
+                    }
+                    for (int i = 0; i < batch.size(); i++) {
+                        rows.add(BulkResult.RowResult.success(from + i, batch.get(i)));
+                    }
+                } catch (RuntimeException e) {
+                    for (int i = 0; i < batch.size(); i++) {
+                        rows.add(BulkResult.RowResult.failed(from + i, batch.get(i), e));
+                    }
+                    failed = true;
+                }
+            }
+            from = to;
+        }
+        return new BulkResult(rows);
+    }
+
     private long executeUpdate(Map<String, Object> row, JdbcOperation jdbcOperation) {
         return getJdbcRepository().executeUpdate(jdbcOperation.getNativeSQL(), row, (EntityAwarePreparedStatementSetter<Map<String, Object>>) (preparedStatement, o) -> setValuesInPreparedStatement(row, preparedStatement, jdbcOperation.getParamsAsArr()));
 
@@ -23,6 +23,8 @@ public class JdbcOperation {
     private String nativeSQL;
     private List<JdbcParam> params;
     private CreateOrReplaceOperation createOrReplaceOperation;
+    // an integer column of the result, findAllPartitioned splits the result into ranges of it
+    private String partitionColumn;
 
     @Getter@Setter
     public static class CreateOrReplaceOperation
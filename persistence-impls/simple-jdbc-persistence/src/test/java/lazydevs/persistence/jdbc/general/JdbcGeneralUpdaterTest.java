@@ -0,0 +1,111 @@
+package lazydevs.persistence.jdbc.general;
+
+import lazydevs.mapper.db.jdbc.JDBCParam;
+import lazydevs.persistence.writer.general.BulkOperation;
+import lazydevs.persistence.writer.general.BulkResult;
+import org.h2.jdbcx.JdbcDataSource;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static lazydevs.persistence.writer.general.BulkResult.Status.FAILED;
+import static lazydevs.persistence.writer.general.BulkResult.Status.NOT_EXECUTED;
+import static lazydevs.persistence.writer.general.BulkResult.Status.SUCCESS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Abhijeet Rai
+ */
+@Test
+public class JdbcGeneralUpdaterTest {
+    private final JdbcOperation insert = operation("INSERT INTO person (id, name) VALUES (?, ?)", "id", "name");
+    private final JdbcOperation update = operation("UPDATE person SET name = ? WHERE id = ?", "name", "id");
+    private final JdbcOperation delete = operation("DELETE FROM person WHERE id = ?", "id");
+    private JdbcDataSource dataSource;
+    private JdbcGeneralUpdater updater;
+
+    private static JdbcOperation operation(String sql, String... params) {
+        JdbcOperation operation = new JdbcOperation();
+        operation.setNativeSQL(sql);
+        operation.setParams(Arrays.stream(params)
+                .map(name -> new JdbcParam(name, "id".equals(name) ? JDBCParam.Type.INTEGER : JDBCParam.Type.STRING, null))
+                .collect(Collectors.toList()));
+        return operation;
+    }
+
+    private static Map<String, Object> record(int id, String name) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("id", id);
+        map.put("name", name);
+        return map;
+    }
+
+    private static List<BulkResult.Status> statuses(BulkResult result) {
+        return result.getRows().stream().map(BulkResult.RowResult::getStatus).collect(Collectors.toList());
+    }
+
+    @BeforeMethod
+    public void setUp() throws SQLException {
+        dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:jdbc-general-updater;DB_CLOSE_DELAY=-1");
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS person");
+            statement.execute("CREATE TABLE person (id INT PRIMARY KEY, name VARCHAR(64))");
+            statement.execute("INSERT INTO person VALUES (1, 'one'), (2, 'two')");
+        }
+        updater = new JdbcGeneralUpdater(dataSource);
+    }
+
+    private List<String> people() throws SQLException {
+        List<String> people = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT id, name FROM person ORDER BY id")) {
+            while (resultSet.next()) {
+                people.add(resultSet.getInt(1) + "=" + resultSet.getString(2));
+            }
+        }
+        return people;
+    }
+
+    public void testRunsOfTheSameActionAndOperation() throws SQLException {
+        BulkResult result = updater.bulkWrite(Arrays.asList(
+                BulkOperation.create(record(3, "three"), insert),
+                BulkOperation.create(record(4, "four"), insert),
+                BulkOperation.update(record(1, "ONE"), update),
+                BulkOperation.delete(record(2, null), delete),
+                BulkOperation.create(record(2, "TWO"), insert)));
+
+        assertTrue(result.isSuccess());
+        assertEquals(statuses(result), Collections.nCopies(5, SUCCESS));
+        assertEquals(result.getRows().get(3).getIndex(), 3);
+        assertEquals(result.getRows().get(3).getRecord(), record(2, null));
+        assertEquals(people(), Arrays.asList("1=ONE", "2=TWO", "3=three", "4=four"));
+    }
+
+    public void testFailedRunIsRolledBackAndTheRestNotExecuted() throws SQLException {
+        BulkResult result = updater.bulkWrite(Arrays.asList(
+                BulkOperation.update(record(1, "ONE"), update),
+                BulkOperation.create(record(3, "three"), insert),
+                BulkOperation.create(record(2, "duplicate"), insert),
+                BulkOperation.create(record(4, "four"), insert),
+                BulkOperation.delete(record(1, null), delete),
+                BulkOperation.create(record(5, "five"), insert)));
+
+        assertEquals(statuses(result), Arrays.asList(SUCCESS, FAILED, FAILED, FAILED, NOT_EXECUTED, NOT_EXECUTED));
+        assertEquals(result.getFailures().stream().map(BulkResult.RowResult::getIndex).collect(Collectors.toList()), Arrays.asList(1, 2, 3, 4, 5));
+        assertEquals(result.getRows().get(2).getRecord(), record(2, "duplicate"));
+        assertEquals(people(), Arrays.asList("1=ONE", "2=two"));
+    }
+}
@@ -10,6 +10,17 @@ public abstract class BatchIterator<T> implements Iterator<List<T>>, AutoCloseab
         this.batchSize = batchSize;
     }
 
+    /**
+     * The next batch, in the given list if the implementation fills its batches itself: the list is then cleared, filled
+     * and returned, so a caller that is done with a batch can hand its list back instead of a new one being allocated
+     * for every batch. Otherwise the same as {@link #next()}.
+     * <p>
+     * Only hand back a list that nothing refers to any more.
+     */
+    public List<T> next(List<T> reuse) {
+        return next();
+    }
+
     @Override
     public abstract void close();
 }
@@ -0,0 +1,309 @@
+package lazydevs.mapper.utils;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Bridges between {@link BatchIterator} and {@link Stream} / {@link Flow.Publisher}, in both directions. Except for a
+ * parallel {@link #stream(BatchIterator)}, none of them reads more than a batch or two ahead of what is consumed, so a
+ * result is never held in memory as a whole.
+ *
+ * @author Abhijeet Rai
+ */
+@Slf4j
+public final class BatchIterators {
+    private BatchIterators() {
+    }
+
+    /**
+     * The rows of all batches as one stream, which closes the batch iterator when it is closed. A parallel stream
+     * splits off whole batches, and as the number of rows is not known it keeps splitting, and so reading, for as long
+     * as the stream asks for more; that can be the whole result before much of it is processed. To bound what is
+     * held in memory, process the {@link #batchStream(BatchIterator)} sequentially and hand the batches to an executor.
+     */
+    public static <T> Stream<T> stream(@NonNull BatchIterator<T> batchIterator) {
+        return StreamSupport.stream(new BatchSpliterator<>(batchIterator), false).onClose(batchIterator::close);
+    }
+
+    /**
+     * The batches as a stream, which closes the batch iterator when it is closed.
+     */
+    public static <T> Stream<List<T>> batchStream(@NonNull BatchIterator<T> batchIterator) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(batchIterator, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(batchIterator::close);
+    }
+
+    /**
+     * The elements of the stream in batches of {@code batchSize}; closing the batch iterator closes the stream.
+     */
+    public static <T> BatchIterator<T> fromStream(@NonNull Stream<T> stream, int batchSize) {
+        return new DefaultBatchIterator<T>(stream.iterator(), batchSize) {
+            @Override
+            public void close() {
+                stream.close();
+            }
+        };
+    }
+
+    /**
+     * @see #publisher(BatchIterator, Executor)
+     */
+    public static <T> Flow.Publisher<List<T>> publisher(@NonNull BatchIterator<T> batchIterator) {
+        return publisher(batchIterator, Runnable::run);
+    }
+
+    /**
+     * A publisher of the batches that reads a batch only when the subscriber has asked for one. The batch iterator can be
+     * read once, so only the first subscriber is served, the others get {@link Flow.Subscriber#onError} right away. The
+     * batch iterator is closed on completion, error or cancellation.
+     *
+     * @param executor runs the reading and the calls to the subscriber; with {@code Runnable::run} they run on the thread
+     *                 that requests, and requests made from {@code onNext} are queued, not recursive.
+     */
+    public static <T> Flow.Publisher<List<T>> publisher(@NonNull BatchIterator<T> batchIterator, @NonNull Executor executor) {
+        return new BatchPublisher<>(batchIterator, executor);
+    }
+
+    /**
+     * Subscribes to the publisher and returns its batches as a batch iterator, requesting up to {@code batchesAhead}
+     * batches beyond those returned. Closing the batch iterator cancels the subscription.
+     *
+     * @param batchSize reported as the batch size of the iterator; the batches are the ones published
+     */
+    public static <T> BatchIterator<T> fromPublisher(@NonNull Flow.Publisher<? extends List<T>> publisher, int batchSize, int batchesAhead) {
+        SubscriberBatchIterator<T> batchIterator = new SubscriberBatchIterator<>(batchSize, QueueBatchIterator.checkBatchesAhead(batchesAhead));
+        publisher.subscribe(batchIterator);
+        return batchIterator;
+    }
+
+    private static final class BatchSpliterator<T> implements Spliterator<T> {
+        private final BatchIterator<T> batchIterator;
+        private Iterator<T> current;
+
+        BatchSpliterator(BatchIterator<T> batchIterator) {
+            this.batchIterator = batchIterator;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            while (null == current || !current.hasNext()) {
+                if (!batchIterator.hasNext()) {
+                    return false;
+                }
+                current = batchIterator.next().iterator();
+            }
+            action.accept(current.next());
+            return true;
+        }
+
+        // the rest of the current batch, or else the next batch; both come before what this one still has
+        @Override
+        public Spliterator<T> trySplit() {
+            if (null != current && current.hasNext()) {
+                Spliterator<T> rest = Spliterators.spliteratorUnknownSize(current, Spliterator.ORDERED);
+                current = null;
+                return rest;
+            }
+            if (!batchIterator.hasNext()) {
+                return null;
+            }
+            List<T> batch = batchIterator.next();
+            current = null;
+            return batch.spliterator();
+        }
+
+        // unknown, so a parallel stream splits for as long as there are batches
+        @Override
+        public long estimateSize() {
+            return Long.MAX_VALUE;
+        }
+
+        @Override
+        public int characteristics() {
+            return Spliterator.ORDERED;
+        }
+    }
+
+    private static final class BatchPublisher<T> implements Flow.Publisher<List<T>> {
+        private final BatchIterator<T> batchIterator;
+        private final Executor executor;
+        private final AtomicBoolean subscribed = new AtomicBoolean();
+
+        BatchPublisher(BatchIterator<T> batchIterator, Executor executor) {
+            this.batchIterator = batchIterator;
+            this.executor = executor;
+        }
+
+        @Override
+        public void subscribe(@NonNull Flow.Subscriber<? super List<T>> subscriber) {
+            if (!subscribed.compareAndSet(false, true)) {
+                subscriber.onSubscribe(new Flow.Subscription() {
+                    @Override
+                    public void request(long n) {
+                    }
+
+                    @Override
+                    public void cancel() {
+                    }
+                });
+                subscriber.onError(new IllegalStateException("A batch iterator can be read only once, it already has a subscriber."));
+                return;
+            }
+            subscriber.onSubscribe(new BatchSubscription<>(batchIterator, executor, subscriber));
+        }
+    }
+
+    /*
+     * Reading and signalling happen in drain(), which runs for one caller at a time: whoever brings the work counter up
+     * from 0 drains until it is back at 0, the others only add to it. A terminal signal leaves the counter above 0, so
+     * nothing runs after it.
+     */
+    private static final class BatchSubscription<T> implements Flow.Subscription {
+        private final BatchIterator<T> batchIterator;
+        private final Executor executor;
+        private final Flow.Subscriber<? super List<T>> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger work = new AtomicInteger();
+        private volatile boolean cancelled;
+        private volatile long invalidRequest;
+
+        BatchSubscription(BatchIterator<T> batchIterator, Executor executor, Flow.Subscriber<? super List<T>> subscriber) {
+            this.batchIterator = batchIterator;
+            this.executor = executor;
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = n;
+            } else {
+                demand.getAndUpdate(d -> d + n < 0 ? Long.MAX_VALUE : d + n);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (work.getAndIncrement() == 0) {
+                executor.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            int missed = 1;
+            do {
+                if (cancelled) {
+                    closeQuietly();
+                    return;
+                }
+                if (0 != invalidRequest) {
+                    closeQuietly();
+                    subscriber.onError(new IllegalArgumentException("The number of batches requested must be positive. n = " + invalidRequest));
+                    return;
+                }
+                while (!cancelled && demand.get() > 0) {
+                    List<T> batch;
+                    try {
+                        if (!batchIterator.hasNext()) {
+                            closeQuietly();
+                            subscriber.onComplete();
+                            return;
+                        }
+                        batch = batchIterator.next();
+                    } catch (Throwable e) {
+                        closeQuietly();
+                        subscriber.onError(e);
+                        return;
+                    }
+                    demand.getAndUpdate(d -> d == Long.MAX_VALUE ? d : d - 1);
+                    subscriber.onNext(batch);
+                }
+                missed = work.addAndGet(-missed);
+            } while (0 != missed);
+        }
+
+        private void closeQuietly() {
+            try {
+                batchIterator.close();
+            } catch (Exception e) {
+                log.warn("Error while closing the batch iterator", e);
+            }
+        }
+    }
+
+    private static final class SubscriberBatchIterator<T> extends QueueBatchIterator<T> implements Flow.Subscriber<List<T>> {
+        private final int batchesAhead;
+        private volatile Flow.Subscription subscription;
+
+        // unbounded, but holds at most batchesAhead batches, as no more are requested, and the terminal signal
+        SubscriberBatchIterator(int batchSize, int batchesAhead) {
+            super(batchSize, new LinkedBlockingQueue<>(), 1, 0);
+            this.batchesAhead = batchesAhead;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            if (null != this.subscription) {
+                subscription.cancel();
+                return;
+            }
+            this.subscription = subscription;
+            subscription.request(batchesAhead);
+        }
+
+        @Override
+        public void onNext(List<T> batch) {
+            offer(batch);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            offer(new Failure(throwable));
+        }
+
+        @Override
+        public void onComplete() {
+            offer(END);
+        }
+
+        @Override
+        public List<T> next() {
+            List<T> batch = super.next();
+            subscription.request(1);
+            return batch;
+        }
+
+        @Override
+        RuntimeException failed(Throwable cause) {
+            return new RuntimeException("Exception occurred while publishing the next batch", cause);
+        }
+
+        @Override
+        public void close() {
+            Flow.Subscription subscription = this.subscription;
+            if (stop() && null != subscription) {
+                subscription.cancel();
+            }
+        }
+    }
+}
@@ -49,8 +49,13 @@ public class DefaultBatchIterator<T> extends BatchIterator<T> {
 
     @Override
     public List<T> next() {
+        return next(new ArrayList<>());
+    }
+
+    @Override
+    public List<T> next(List<T> list) {
         int recordCount = 0;
-        List<T> list = new ArrayList<>();
+        list.clear();
         Iterator it = conversionRequired ? originalIterator : iterator;
         try {
             while (recordCount < batchSize && it.hasNext()) {
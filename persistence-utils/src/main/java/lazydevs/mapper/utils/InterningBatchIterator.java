@@ -0,0 +1,49 @@
+package lazydevs.mapper.utils;
+
+import lombok.Getter;
+import lombok.NonNull;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Interns the String values of every batch of the wrapped iterator through one {@link StringDictionary}, so repeated
+ * values are shared within a batch and across the batches of a read.
+ *
+ * @author Abhijeet Rai
+ */
+public class InterningBatchIterator<T extends Map<String, Object>> extends BatchIterator<T> {
+    private final BatchIterator<T> batchIterator;
+    @Getter
+    private final StringDictionary dictionary;
+
+    public InterningBatchIterator(@NonNull BatchIterator<T> batchIterator) {
+        this(batchIterator, new StringDictionary());
+    }
+
+    public InterningBatchIterator(@NonNull BatchIterator<T> batchIterator, @NonNull StringDictionary dictionary) {
+        super(batchIterator.batchSize);
+        this.batchIterator = batchIterator;
+        this.dictionary = dictionary;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return batchIterator.hasNext();
+    }
+
+    @Override
+    public List<T> next() {
+        return dictionary.intern(batchIterator.next());
+    }
+
+    @Override
+    public List<T> next(List<T> reuse) {
+        return dictionary.intern(batchIterator.next(reuse));
+    }
+
+    @Override
+    public void close() {
+        batchIterator.close();
+    }
+}
@@ -0,0 +1,79 @@
+package lazydevs.mapper.utils;
+
+import lazydevs.persistence.connection.multitenant.TenantContext;
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads several batch iterators at the same time, each on its own thread, and returns their batches in the order they
+ * are read; the partitions of a {@code GeneralReader.findAllPartitioned} for instance. Up to {@code batchesAhead} batches
+ * wait to be taken, then the reading threads block.
+ * <p>
+ * Each wrapped iterator is only used by its reading thread, except for {@link #close()}, which stops the reading
+ * threads, waits for the fetches in progress to end and then closes all of them. The first exception thrown while
+ * reading stops all reading threads and is re-thrown by {@link #next()}. The tenant of the thread that creates this
+ * iterator is set on the reading threads.
+ *
+ * @author Abhijeet Rai
+ */
+public class MergingBatchIterator<T> extends QueueBatchIterator<T> {
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final List<BatchIterator<T>> batchIterators;
+
+    public MergingBatchIterator(@NonNull List<BatchIterator<T>> batchIterators) {
+        this(batchIterators, Math.max(batchIterators.size(), 1));
+    }
+
+    public MergingBatchIterator(@NonNull List<BatchIterator<T>> batchIterators, int batchesAhead) {
+        super(batchIterators.isEmpty() ? 0 : batchIterators.get(0).batchSize, new ArrayBlockingQueue<>(checkBatchesAhead(batchesAhead)),
+                batchIterators.size(), batchIterators.size());
+        this.batchIterators = new ArrayList<>(batchIterators);
+        String tenantId = TenantContext.getTenantId();
+        int id = THREAD_COUNTER.incrementAndGet();
+        for (int i = 0; i < this.batchIterators.size(); i++) {
+            BatchIterator<T> batchIterator = this.batchIterators.get(i);
+            Thread thread = new Thread(() -> read(batchIterator, tenantId), "batch-merge-" + id + "-" + (i + 1));
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+
+    // stops the other readers
+    @Override
+    RuntimeException failed(Throwable cause) {
+        RuntimeException failure = super.failed(cause);
+        try {
+            close();
+        } catch (RuntimeException e) {
+            failure.addSuppressed(e);
+        }
+        return failure;
+    }
+
+    @Override
+    public void close() {
+        if (!stop()) {
+            return;
+        }
+        RuntimeException exception = null;
+        for (BatchIterator<T> batchIterator : batchIterators) {
+            try {
+                batchIterator.close();
+            } catch (RuntimeException e) {
+                if (null == exception) {
+                    exception = e;
+                } else {
+                    exception.addSuppressed(e);
+                }
+            }
+        }
+        if (null != exception) {
+            throw exception;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package lazydevs.mapper.utils;
+
+import lazydevs.persistence.connection.multitenant.TenantContext;
+import lombok.NonNull;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads the batches of the wrapped iterator ahead on another thread, so fetching the next batch overlaps with
+ * processing the current one. At most {@code batchesAhead} batches wait in the queue, then the reading thread blocks
+ * until one is taken.
+ * <p>
+ * The wrapped iterator is only ever used by the reading thread, except for {@link #close()}, which stops the reading
+ * thread, waits for a fetch in progress to end, and then closes it. An exception thrown while reading is re-thrown
+ * by the {@link #next()} that would have returned the batch. The tenant of the thread that creates this iterator is
+ * set on the reading thread.
+ *
+ * @author Abhijeet Rai
+ */
+public class PrefetchingBatchIterator<T> extends QueueBatchIterator<T> {
+    public static final int DEFAULT_BATCHES_AHEAD = 2;
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private final BatchIterator<T> batchIterator;
+
+    public PrefetchingBatchIterator(@NonNull BatchIterator<T> batchIterator) {
+        this(batchIterator, DEFAULT_BATCHES_AHEAD);
+    }
+
+    public PrefetchingBatchIterator(@NonNull BatchIterator<T> batchIterator, int batchesAhead) {
+        this(batchIterator, batchesAhead, runnable -> {
+            Thread thread = new Thread(runnable, "batch-prefetch-" + THREAD_COUNTER.incrementAndGet());
+            thread.setDaemon(true);
+            thread.start();
+        });
+    }
+
+    /**
+     * @param executor runs the reading loop, which occupies a thread until the wrapped iterator is exhausted or closed
+     */
+    public PrefetchingBatchIterator(@NonNull BatchIterator<T> batchIterator, int batchesAhead, @NonNull Executor executor) {
+        super(batchIterator.batchSize, new ArrayBlockingQueue<>(checkBatchesAhead(batchesAhead)), 1, 1);
+        this.batchIterator = batchIterator;
+        String tenantId = TenantContext.getTenantId();
+        executor.execute(() -> read(batchIterator, tenantId));
+    }
+
+    @Override
+    public void close() {
+        if (stop()) {
+            batchIterator.close();
+        }
+    }
+}
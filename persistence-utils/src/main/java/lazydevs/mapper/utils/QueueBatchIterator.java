@@ -0,0 +1,153 @@
+package lazydevs.mapper.utils;
+
+import lazydevs.persistence.connection.multitenant.TenantContext;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Returns the batches that its producers put in a queue. Each producer ends with {@link #END} or a {@link Failure}, and
+ * the iteration ends once all of them have, or once it is stopped. A producer is either a reading thread running
+ * {@link #read(BatchIterator, String)}, which {@link #stop()} waits for, or one that offers its batches itself.
+ *
+ * @author Abhijeet Rai
+ */
+@Slf4j
+abstract class QueueBatchIterator<T> extends BatchIterator<T> {
+    static final Object END = new Object();
+
+    private final BlockingQueue<Object> queue;
+    private final CountDownLatch readersDone;
+    private volatile boolean closed;
+    private int producers;// that have not ended yet, as seen by the consumer
+    private Object pending;// taken from the queue by hasNext(), not yet returned by next()
+
+    /**
+     * @param readers of the producers, the ones that run {@link #read(BatchIterator, String)}
+     */
+    QueueBatchIterator(int batchSize, BlockingQueue<Object> queue, int producers, int readers) {
+        super(batchSize);
+        this.queue = queue;
+        this.producers = producers;
+        this.readersDone = new CountDownLatch(readers);
+    }
+
+    static int checkBatchesAhead(int batchesAhead) {
+        if (batchesAhead <= 0) {
+            throw new IllegalArgumentException("batchesAhead must be positive. batchesAhead = " + batchesAhead);
+        }
+        return batchesAhead;
+    }
+
+    /**
+     * Offers the batches of the batch iterator, with the tenant set, until it is exhausted or this is stopped.
+     */
+    void read(BatchIterator<T> batchIterator, String tenantId) {
+        String previousTenantId = TenantContext.getTenantId();
+        TenantContext.setTenantId(tenantId);
+        try {
+            while (!closed && batchIterator.hasNext()) {
+                if (!offer(batchIterator.next())) {
+                    return;
+                }
+            }
+            offer(END);
+        } catch (Throwable e) {
+            offer(new Failure(e));
+        } finally {
+            TenantContext.setTenantId(previousTenantId);
+            readersDone.countDown();
+        }
+    }
+
+    // false if stopped while waiting for room in the queue
+    boolean offer(Object item) {
+        try {
+            while (!queue.offer(item, 100, TimeUnit.MILLISECONDS)) {
+                if (closed) {
+                    return false;
+                }
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (null == pending) {
+            if (closed || 0 == producers) {
+                return false;
+            }
+            try {
+                Object item = queue.take();
+                if (item == END) {
+                    producers--;
+                } else {
+                    pending = item;
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for the next batch", e);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public List<T> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException("No more records");
+        }
+        Object item = pending;
+        pending = null;
+        if (item instanceof Failure) {
+            producers--;// the failure is the last thing its producer offers
+            throw failed(((Failure) item).cause);
+        }
+        return (List<T>) item;
+    }
+
+    /**
+     * @return what {@link #next()} throws for the failure of a producer
+     */
+    RuntimeException failed(Throwable cause) {
+        return new RuntimeException("Exception occurred while reading the next batch", cause);
+    }
+
+    /**
+     * Ends the iteration, and waits for the reading threads to stop; what they read from can be closed after it.
+     *
+     * @return false if stopped already
+     */
+    boolean stop() {
+        if (closed) {
+            return false;
+        }
+        closed = true;
+        queue.clear();// unblocks the reading threads waiting for room
+        try {
+            readersDone.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while waiting for the reading threads to stop, closing the batch iterator anyway");
+        }
+        queue.clear();
+        pending = null;
+        return true;
+    }
+
+    static final class Failure {
+        private final Throwable cause;
+
+        Failure(Throwable cause) {
+            this.cause = cause;
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package lazydevs.mapper.utils;
+
+import lombok.NonNull;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * A row read from a table-like source, stored as an array of values against a {@link Schema} that all the rows of a
+ * result share, instead of a map with its own keys and entry objects per row.
+ * <p>
+ * It behaves as a {@link LinkedHashMap} filled in column order would: keys that are not in the schema can be put, and
+ * are kept after the columns, a removed column is skipped, and putting it again moves it to the end. Not thread safe.
+ *
+ * @author Abhijeet Rai
+ */
+public class Row extends AbstractMap<String, Object> implements Serializable {
+    private final Schema schema;
+    private final Object[] values;
+    private BitSet removed;// removed columns, null until the first removal
+    private Map<String, Object> extra;// keys beyond the schema, null until the first one
+    private int size;
+
+    /**
+     * A row with every column present and null.
+     */
+    public Row(@NonNull Schema schema) {
+        this(schema, new Object[schema.size()]);
+    }
+
+    /**
+     * @param values one value per column of the schema, used as is (not copied)
+     */
+    public Row(@NonNull Schema schema, @NonNull Object[] values) {
+        if (values.length != schema.size()) {
+            throw new IllegalArgumentException(String.format("Expected %s values for the columns %s, got %s", schema.size(), schema, values.length));
+        }
+        this.schema = schema;
+        this.values = values;
+        this.size = values.length;
+    }
+
+    public Schema getSchema() {
+        return schema;
+    }
+
+    /**
+     * Sets the value of a column by its position in the source, see {@link Schema#of(String...)}.
+     */
+    public void setColumn(int column, Object value) {
+        int index = schema.slots[column];
+        if (isRemoved(index)) {
+            put(schema.names[index], value);
+        } else {
+            values[index] = value;
+        }
+    }
+
+    /**
+     * Removes the columns that none of the first {@code count} source columns set, for a source row that is shorter
+     * than its header.
+     */
+    public void retainColumns(int count) {
+        if (count >= schema.slots.length) {
+            return;
+        }
+        BitSet retained = new BitSet(values.length);
+        for (int column = 0; column < count; column++) {
+            retained.set(schema.slots[column]);
+        }
+        for (int index = retained.nextClearBit(0); index < values.length; index = retained.nextClearBit(index + 1)) {
+            if (!isRemoved(index)) {
+                removeColumn(index);
+            }
+        }
+    }
+
+    private boolean isRemoved(int index) {
+        return null != removed && removed.get(index);
+    }
+
+    // the schema index of the key if it is a present column, -1 otherwise
+    private int indexOf(Object key) {
+        int index = schema.indexOf(key);
+        return index < 0 || isRemoved(index) ? -1 : index;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return indexOf(key) >= 0 || (null != extra && extra.containsKey(key));
+    }
+
+    @Override
+    public Object get(Object key) {
+        int index = indexOf(key);
+        if (index >= 0) {
+            return values[index];
+        }
+        return null == extra ? null : extra.get(key);
+    }
+
+    @Override
+    public Object put(String key, Object value) {
+        int index = indexOf(key);
+        if (index >= 0) {
+            Object previous = values[index];
+            values[index] = value;
+            return previous;
+        }
+        if (null == extra) {
+            extra = new LinkedHashMap<>();
+        }
+        if (!extra.containsKey(key)) {
+            size++;
+        }
+        return extra.put(key, value);
+    }
+
+    @Override
+    public Object remove(Object key) {
+        int index = indexOf(key);
+        if (index >= 0) {
+            Object previous = values[index];
+            removeColumn(index);
+            return previous;
+        }
+        if (null != extra && extra.containsKey(key)) {
+            size--;
+            return extra.remove(key);
+        }
+        return null;
+    }
+
+    private void removeColumn(int index) {
+        if (null == removed) {
+            removed = new BitSet(values.length);
+        }
+        removed.set(index);
+        values[index] = null;
+        size--;
+    }
+
+    @Override
+    public void clear() {
+        if (null == removed) {
+            removed = new BitSet(values.length);
+        }
+        removed.set(0, values.length);
+        Arrays.fill(values, null);
+        extra = null;
+        size = 0;
+    }
+
+    @Override
+    public Set<Entry<String, Object>> entrySet() {
+        return new AbstractSet<Entry<String, Object>>() {
+            @Override
+            public Iterator<Entry<String, Object>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    // the columns in schema order, then the extra keys in the order they were put
+    private class EntryIterator implements Iterator<Entry<String, Object>> {
+        private int next = advance(0);
+        private int current = -1;
+        private Iterator<Entry<String, Object>> extraIterator;
+        private boolean inExtra;
+
+        private int advance(int from) {
+            int index = from;
+            while (index < values.length && isRemoved(index)) {
+                index++;
+            }
+            return index;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next < values.length) {
+                return true;
+            }
+            if (null == extraIterator) {
+                extraIterator = null == extra ? null : extra.entrySet().iterator();
+            }
+            return null != extraIterator && extraIterator.hasNext();
+        }
+
+        @Override
+        public Entry<String, Object> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            if (next < values.length) {
+                current = next;
+                next = advance(next + 1);
+                return new ColumnEntry(current);
+            }
+            inExtra = true;
+            current = -1;
+            return extraIterator.next();
+        }
+
+        @Override
+        public void remove() {
+            if (inExtra) {
+                extraIterator.remove();
+                size--;
+                inExtra = false;
+            } else if (current >= 0) {
+                removeColumn(current);
+                current = -1;
+            } else {
+                throw new IllegalStateException();
+            }
+        }
+    }
+
+    private class ColumnEntry implements Entry<String, Object> {
+        private final int index;
+
+        ColumnEntry(int index) {
+            this.index = index;
+        }
+
+        @Override
+        public String getKey() {
+            return schema.names[index];
+        }
+
+        @Override
+        public Object getValue() {
+            return values[index];
+        }
+
+        @Override
+        public Object setValue(Object value) {
+            Object previous = values[index];
+            values[index] = value;
+            return previous;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+            Entry<?, ?> e = (Entry<?, ?>) o;
+            return Objects.equals(getKey(), e.getKey()) && Objects.equals(getValue(), e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+
+    /**
+     * The column names of a result, created once and shared by all of its rows. Immutable, so it can be shared across
+     * threads.
+     */
+    public static final class Schema implements Serializable {
+        private final String[] names;
+        private final Map<String, Integer> indexes;
+        private final int[] slots;// the index of each source column, repeated names share the first one's
+
+        private Schema(String[] columns) {
+            this.indexes = new HashMap<>(columns.length * 4 / 3 + 1);
+            this.slots = new int[columns.length];
+            String[] names = new String[columns.length];
+            int size = 0;
+            for (int i = 0; i < columns.length; i++) {
+                Integer index = indexes.get(columns[i]);
+                if (null == index) {
+                    index = size++;
+                    indexes.put(columns[i], index);
+                    names[index] = columns[i];
+                }
+                slots[i] = index;
+            }
+            this.names = Arrays.copyOf(names, size);
+        }
+
+        /**
+         * @param columns the column names in source order; a name that repeats is one column, whose value is the
+         *                last one set, as with a map.
+         */
+        public static Schema of(@NonNull String... columns) {
+            return new Schema(columns.clone());
+        }
+
+        public int size() {
+            return names.length;
+        }
+
+        public int indexOf(Object name) {
+            Integer index = indexes.get(name);
+            return null == index ? -1 : index;
+        }
+
+        public String getName(int index) {
+            return names[index];
+        }
+
+        /**
+         * @return the number of source columns, which is more than {@link #size()} when names repeat
+         */
+        public int getColumnCount() {
+            return slots.length;
+        }
+
+        @Override
+        public String toString() {
+            return Arrays.toString(names);
+        }
+    }
+}
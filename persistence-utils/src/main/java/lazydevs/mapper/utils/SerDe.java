@@ -6,44 +6,129 @@ package lazydevs.mapper.utils;
 
 
 import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.MappingJsonFactory;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.dataformat.xml.XmlFactory;
 import com.fasterxml.jackson.dataformat.xml.XmlMapper;
+import com.fasterxml.jackson.dataformat.xml.ser.ToXmlGenerator;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
 import lombok.Getter;
+import org.msgpack.jackson.dataformat.MessagePackFactory;
 
+import javax.xml.namespace.QName;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.Files;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Base64;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
 import static java.lang.String.format;
 
+/**
+ * SMILE, CBOR and MESSAGE_PACK are binary. Use {@link #serializeToBytes(Object)} / {@link #deserialize(byte[], Class)}
+ * (or the stream based methods) with them; their String based methods carry the bytes as Base64 text.
+ * <p>
+ * An {@link ObjectReader} is cached per target type and the writers are created once, so a call does not look the
+ * (de)serializers up again. Readers and writers copy the mapper's configuration when they are created, so change the
+ * configuration through {@link #reconfigure(Consumer)}, which drops them. Set the system property
+ * {@code lazydevs.serde.blackbird=true} to register Jackson's Blackbird module, which replaces reflective property
+ * access with generated lambdas.
+ */
 public enum SerDe {
-    JSON(new MappingJsonFactory()), YAML(new YAMLFactory()), XML(new XmlMapper());
+    JSON(new MappingJsonFactory()), YAML(new YAMLFactory()), XML(new XmlMapper()),
+    SMILE(new SmileFactory(), true), CBOR(new CBORFactory(), true), MESSAGE_PACK(new MessagePackFactory(), true);
 
     SerDe(JsonFactory jsonFactory){
-        OBJECT_MAPPER = new ObjectMapper(jsonFactory);
-        OBJECT_MAPPER.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
+        this(jsonFactory, false);
+    }
+
+    SerDe(JsonFactory jsonFactory, boolean binary){
+        this(new ObjectMapper(jsonFactory), binary);
     }
 
     SerDe(ObjectMapper objectMapper){
+        this(objectMapper, false);
+    }
+
+    SerDe(ObjectMapper objectMapper, boolean binary){
         OBJECT_MAPPER = objectMapper;
         OBJECT_MAPPER.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false);
+        if (Boolean.getBoolean(BLACKBIRD_PROPERTY)) {
+            OBJECT_MAPPER.registerModule(new BlackbirdModule());
+        }
+        this.binary = binary;
+        this.listOfMapType = OBJECT_MAPPER.getTypeFactory().constructType(new TypeReference<List<Map<String, Object>>>(){});
+        createWriters();
     }
 
     @Getter
     private final ObjectMapper OBJECT_MAPPER ;
+    @Getter
+    private final boolean binary;
+    // keyed by Class, JavaType or a List of the classes a generic type is built from
+    private final Map<Object, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final JavaType listOfMapType;
+    private volatile ObjectWriter writer, prettyWriter, streamWriter;
+
+    private static final String BLACKBIRD_PROPERTY = "lazydevs.serde.blackbird";
+
+    // names Jackson itself gives a root-level List when writing it as XML
+    private static final String XML_ROOT_NAME = "ArrayList";
+    private static final String XML_ELEMENT_NAME = "item";
+
+    /**
+     * Applies the change to the underlying mapper and drops the cached readers and writers, so the change is seen
+     * by every later call.
+     */
+    public synchronized void reconfigure(Consumer<ObjectMapper> configurer) {
+        configurer.accept(OBJECT_MAPPER);
+        readers.clear();
+        createWriters();
+    }
+
+    private void createWriters() {
+        writer = OBJECT_MAPPER.writer();
+        prettyWriter = OBJECT_MAPPER.writerWithDefaultPrettyPrinter();
+        streamWriter = writer.without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    private ObjectReader reader(Class<?> clazz) {
+        return readers.computeIfAbsent(clazz, k -> OBJECT_MAPPER.readerFor(clazz));
+    }
+
+    private ObjectReader reader(JavaType javaType) {
+        return readers.computeIfAbsent(javaType, k -> OBJECT_MAPPER.readerFor(javaType));
+    }
+
+    private ObjectReader mapReader(Class<?> keyType, Class<?> valueType) {
+        return readers.computeIfAbsent(Arrays.asList(Map.class, keyType, valueType), k -> OBJECT_MAPPER.readerFor(OBJECT_MAPPER.getTypeFactory().constructMapType(Map.class, keyType, valueType)));
+    }
+
+    private ObjectReader listReader(Class<?> elementType) {
+        return readers.computeIfAbsent(Arrays.asList(List.class, elementType), k -> OBJECT_MAPPER.readerFor(OBJECT_MAPPER.getTypeFactory().constructCollectionType(List.class, elementType)));
+    }
 
 
     public <T> T deserialize(String string, Class<T> clazz) {
         try {
-            return OBJECT_MAPPER.readValue(string, clazz);
+            return read(string, reader(clazz));
         } catch (Exception e) {
             throw new RuntimeException(format("Exception while deserializing from string = '%s' to type = '%s'", string, clazz), e);
         }
@@ -51,7 +136,7 @@ public enum SerDe {
 
     public <T>  T deserialize(File file, Class<T> clazz) {
         try {
-            return OBJECT_MAPPER.readValue(file, clazz);
+            return reader(clazz).readValue(file);
         } catch (Exception e) {
             throw new RuntimeException(format("Exception while deserializing from file = '%s' to type = '%s'", file, clazz), e);
         }
@@ -59,7 +144,7 @@ public enum SerDe {
 
     public <T> T deserialize(InputStream is, Class<T> clazz) {
         try {
-            return OBJECT_MAPPER.readValue(is, clazz);
+            return reader(clazz).readValue(is);
         } catch (Exception e) {
             throw new RuntimeException(format("Exception while deserializing from inputStream to type = '%s'", clazz), e);
         }
@@ -75,7 +160,7 @@ public enum SerDe {
 
     public <K, V> Map<K, V> deserializeToMap(String string, Class<K> keyType, Class<V> valueType){
         try {
-            return OBJECT_MAPPER.readValue(string, OBJECT_MAPPER.getTypeFactory().constructMapType(Map.class, keyType, valueType));
+            return read(string, mapReader(keyType, valueType));
         } catch (Exception e) {
             throw new RuntimeException(format("Exception while deserializing from string = '%s' to Map<K, V> where K = '%s', V = '%s'", string,  keyType, valueType), e);
         }
@@ -83,7 +168,7 @@ public enum SerDe {
 
     public <K, V> Map<K, V> deserializeToMap(InputStream is, Class<K> keyType, Class<V> valueType){
         try {
-            return OBJECT_MAPPER.readValue(is, OBJECT_MAPPER.getTypeFactory().constructMapType(Map.class, keyType, valueType));
+            return mapReader(keyType, valueType).readValue(is);
         } catch (Exception e) {
             throw new RuntimeException(format("Exception while deserializing from inputStream to Map<K, V> where K = '%s', V = '%s'", keyType, valueType), e);
         }
@@ -91,7 +176,7 @@ public enum SerDe {
 
     public <K, V> Map<K, V> deserializeToMap(File file, Class<K> keyType, Class<V> valueType){
         try {
-            return OBJECT_MAPPER.readValue(file, OBJECT_MAPPER.getTypeFactory().constructMapType(Map.class, keyType, valueType));
+            return mapReader(keyType, valueType).readValue(file);
         } catch (Exception e) {
             throw new RuntimeException(format("Exception while deserializing from file = '%s' to Map<K, V> where K = '%s', V = '%s'", file.getAbsolutePath(), keyType, valueType), e);
         }
@@ -103,7 +188,7 @@ public enum SerDe {
 
     public <T> List<T> deserializeToList(InputStream is, Class<T> clazz) {
         try {
-            return OBJECT_MAPPER.readValue(is, OBJECT_MAPPER.getTypeFactory().constructCollectionType(List.class, clazz));
+            return listReader(clazz).readValue(is);
         } catch (Exception e) {
             throw new RuntimeException(format("Exception while deserializing from inputStream to List<T> where T  = '%s'", clazz), e);
         }
@@ -111,7 +196,7 @@ public enum SerDe {
 
     public <T> List<T> deserializeToList(String jsonString, Class<T> clazz) {
         try {
-            return OBJECT_MAPPER.readValue(jsonString, OBJECT_MAPPER.getTypeFactory().constructCollectionType(List.class, clazz));
+            return read(jsonString, listReader(clazz));
         } catch (Exception e) {
             throw new RuntimeException(format("Exception while deserializing from jsonString = '%s' to List<T> where T  = '%s'", jsonString, clazz), e);
         }
@@ -119,7 +204,7 @@ public enum SerDe {
 
     public List<Map<String, Object>> deserializeToListOfMap(String jsonString) {
         try {
-            return OBJECT_MAPPER.readValue(jsonString, new TypeReference<List<Map<String, Object>>>(){});
+            return read(jsonString, reader(listOfMapType));
         } catch (Exception e) {
             throw new RuntimeException(format("Exception while deserializing from jsonString = '%s' to List<Map<String, Object>>", jsonString), e);
         }
@@ -127,18 +212,133 @@ public enum SerDe {
 
     public List<Map<String, Object>> deserializeToListOfMap(InputStream inputStream) {
         try {
-            return OBJECT_MAPPER.readValue(inputStream, new TypeReference<List<Map<String, Object>>>(){});
+            return reader(listOfMapType).readValue(inputStream);
         } catch (Exception e) {
             throw new RuntimeException("Exception while deserializing from inputStream to List<Map<String, Object>>", e);
         }
     }
 
+    public <T> T deserialize(char[] chars, int offset, int length, Class<T> clazz) {
+        return deserialize(chars, offset, length, reader(clazz));
+    }
+
+    public List<Map<String, Object>> deserializeToListOfMap(char[] chars, int offset, int length) {
+        return deserialize(chars, offset, length, reader(listOfMapType));
+    }
+
+    private <T> T deserialize(char[] chars, int offset, int length, ObjectReader reader) {
+        if (binary) {
+            return deserialize(new String(chars, offset, length), reader);
+        }
+        try (JsonParser parser = OBJECT_MAPPER.createParser(chars, offset, length)) {
+            return reader.readValue(parser);
+        } catch (Exception e) {
+            throw new RuntimeException(format("Exception while deserializing from string = '%s' to type = '%s'", new String(chars, offset, length), reader.getValueType()), e);
+        }
+    }
+
+    private <T> T deserialize(String string, ObjectReader reader) {
+        try {
+            return read(string, reader);
+        } catch (Exception e) {
+            throw new RuntimeException(format("Exception while deserializing from string = '%s' to type = '%s'", string, reader.getValueType()), e);
+        }
+    }
+
+    private <T> T read(String string, ObjectReader reader) throws IOException {
+        if (binary) {
+            return reader.readValue(Base64.getDecoder().decode(string));
+        }
+        return reader.readValue(string);
+    }
+
+    public <T> T deserialize(byte[] bytes, Class<T> clazz) {
+        try {
+            return reader(clazz).readValue(bytes);
+        } catch (Exception e) {
+            throw new RuntimeException(format("Exception while deserializing from bytes to type = '%s'", clazz), e);
+        }
+    }
+
+    public Map<String, Object> deserializeToMap(byte[] bytes) {
+        return deserialize(bytes, Map.class);
+    }
+
+    public byte[] serializeToBytes(Object object) {
+        try {
+            return writer.writeValueAsBytes(object);
+        } catch (Exception e) {
+            throw new RuntimeException("Exception while serializing object to bytes. Object = " + object, e);
+        }
+    }
+
+    /**
+     * Streams the elements of a top-level array (for XML, the children of the root element) in batches,
+     * instead of materialising the whole document. Closing the iterator closes the stream.
+     */
+    public <T> BatchIterator<T> deserializeToBatchIterator(InputStream is, Class<T> clazz, int batchSize) {
+        try {
+            return new SerDeBatchIterator<>(OBJECT_MAPPER.createParser(is), reader(clazz), this == XML, batchSize);
+        } catch (IOException e) {
+            throw new RuntimeException(format("Exception while deserializing from inputStream to BatchIterator<T> where T  = '%s'", clazz), e);
+        }
+    }
+
+    public BatchIterator<Map<String, Object>> deserializeToBatchIteratorOfMap(InputStream is, int batchSize) {
+        return (BatchIterator) deserializeToBatchIterator(is, Map.class, batchSize);
+    }
+
+    /**
+     * Writes every element of every batch as one top-level array (for XML, as children of one root element), a batch
+     * at a time, and closes the iterator. The output stream is flushed but left open.
+     */
+    public void serialize(BatchIterator<?> batchIterator, OutputStream os) {
+        try (BatchIterator<?> it = batchIterator;
+             JsonGenerator generator = OBJECT_MAPPER.getFactory().createGenerator(os)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setCodec(OBJECT_MAPPER);
+            if (this == XML) {
+                ((ToXmlGenerator) generator).setNextName(new QName(XML_ROOT_NAME));
+                generator.writeStartObject();
+            } else {
+                generator.writeStartArray();
+            }
+            while (it.hasNext()) {
+                for (Object element : it.next()) {
+                    if (this == XML) {
+                        generator.writeFieldName(XML_ELEMENT_NAME);
+                    }
+                    generator.writeObject(element);
+                }
+                generator.flush();
+            }
+            if (this == XML) {
+                generator.writeEndObject();
+            } else {
+                generator.writeEndArray();
+            }
+        } catch (Exception e) {
+            throw new RuntimeException("Exception while serializing batchIterator to outputStream", e);
+        }
+    }
+
+    public void serialize(Object object, OutputStream os) {
+        try {
+            streamWriter.writeValue(os, object);
+        } catch (Exception e) {
+            throw new RuntimeException("Exception while serializing object to outputStream. Object = " + object, e);
+        }
+    }
+
     public String serialize(Object object, boolean pretty) {
         try {
+            if (binary) {
+                return Base64.getEncoder().encodeToString(writer.writeValueAsBytes(object));
+            }
             if (pretty) {
-                return OBJECT_MAPPER.writerWithDefaultPrettyPrinter().writeValueAsString(object);
+                return prettyWriter.writeValueAsString(object);
             }
-            return OBJECT_MAPPER.writeValueAsString(object);
+            return writer.writeValueAsString(object);
         } catch (Exception e) {
             throw new RuntimeException("Exception while serializing object to json. Pretty = " + pretty + ", Object = " + object, e);
         }
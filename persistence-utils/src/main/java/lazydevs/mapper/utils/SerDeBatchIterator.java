@@ -0,0 +1,93 @@
+package lazydevs.mapper.utils;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the elements of a top-level array one at a time, so only the current batch is ever held in memory.
+ * <p>
+ * For JSON/YAML the document must be an array. XML has no arrays, so there the children of the root element are
+ * the elements, which is how {@link SerDe#deserializeToListOfMap(java.io.InputStream)} reads it as well.
+ *
+ * @author Abhijeet Rai
+ */
+class SerDeBatchIterator<T> extends BatchIterator<T> {
+    private final JsonParser parser;
+    private final ObjectReader elementReader;
+    private final JsonToken endToken;
+    private boolean hasNextElement;
+
+    SerDeBatchIterator(JsonParser parser, ObjectReader elementReader, boolean rootIsWrapper, int batchSize) {
+        super(batchSize);
+        this.parser = parser;
+        this.elementReader = elementReader;
+        this.endToken = rootIsWrapper ? JsonToken.END_OBJECT : JsonToken.END_ARRAY;
+        try {
+            JsonToken token = parser.nextToken();
+            if (null == token) {// empty document
+                hasNextElement = false;
+                return;
+            }
+            JsonToken expected = rootIsWrapper ? JsonToken.START_OBJECT : JsonToken.START_ARRAY;
+            if (token != expected) {
+                close();
+                throw new IllegalArgumentException("Expected the document to start with " + expected + " but found " + token);
+            }
+            advance();
+        } catch (IOException e) {
+            close();
+            throw new RuntimeException("Exception while starting to read the array", e);
+        }
+    }
+
+    // positions the parser on the first token of the next element, if there is one
+    private void advance() throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.FIELD_NAME) {// XML: every child of the root element comes as a (repeated) field
+            token = parser.nextToken();
+        }
+        hasNextElement = null != token && token != endToken;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return hasNextElement;
+    }
+
+    @Override
+    public List<T> next() {
+        if (!hasNextElement) {
+            throw new NoSuchElementException();
+        }
+        List<T> list = new ArrayList<>(batchSize);
+        try {
+            while (hasNextElement && list.size() < batchSize) {
+                list.add(elementReader.readValue(parser));
+                advance();
+            }
+        } catch (IOException e) {
+            close();
+            throw new RuntimeException("Exception while reading the array element no. " + list.size() + " of the current batch", e);
+        }
+        if (!hasNextElement) {
+            close();
+        }
+        return list;
+    }
+
+    @Override
+    public void close() {
+        hasNextElement = false;
+        try {
+            parser.close();
+        } catch (IOException e) {
+            throw new RuntimeException("Exception while closing the parser", e);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package lazydevs.mapper.utils;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replaces equal String values of a column with one shared instance, so that a batch with many repetitions of a
+ * few values (status codes, country codes and the like) holds each of them once.
+ * <p>
+ * The dictionary is bounded: a column that shows more than {@code maxValuesPerColumn} distinct values is taken to be
+ * of high cardinality, its dictionary is dropped and its values are left alone from then on. Values longer than
+ * {@code maxLength} are never interned. Not thread safe, use one per reader.
+ *
+ * @author Abhijeet Rai
+ */
+@Getter
+public class StringDictionary {
+    public static final int DEFAULT_MAX_VALUES_PER_COLUMN = 1024;
+    public static final int DEFAULT_MAX_LENGTH = 64;
+    // marks a column whose dictionary was dropped
+    private static final Map<String, String> HIGH_CARDINALITY = new HashMap<>();
+
+    private final int maxValuesPerColumn;
+    private final int maxLength;
+    @Getter(AccessLevel.NONE)
+    private final Map<String, Map<String, String>> columns = new HashMap<>();
+
+    public StringDictionary() {
+        this(DEFAULT_MAX_VALUES_PER_COLUMN, DEFAULT_MAX_LENGTH);
+    }
+
+    public StringDictionary(int maxValuesPerColumn, int maxLength) {
+        if (maxValuesPerColumn <= 0 || maxLength <= 0) {
+            throw new IllegalArgumentException(String.format("maxValuesPerColumn and maxLength must be positive. maxValuesPerColumn = %s, maxLength = %s", maxValuesPerColumn, maxLength));
+        }
+        this.maxValuesPerColumn = maxValuesPerColumn;
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * @return the shared instance equal to the value, or the value itself if the column is not interned
+     */
+    public String intern(String column, String value) {
+        if (null == value || value.length() > maxLength) {
+            return value;
+        }
+        Map<String, String> values = columns.get(column);
+        if (null == values) {
+            values = new HashMap<>();
+            columns.put(column, values);
+        } else if (values == HIGH_CARDINALITY) {
+            return value;
+        }
+        String shared = values.get(value);
+        if (null != shared) {
+            return shared;
+        }
+        if (values.size() == maxValuesPerColumn) {
+            columns.put(column, HIGH_CARDINALITY);
+            return value;
+        }
+        values.put(value, value);
+        return value;
+    }
+
+    /**
+     * Interns the String values of the rows in place.
+     *
+     * @return the same rows
+     */
+    public <M extends Map<String, Object>> List<M> intern(List<M> rows) {
+        for (M row : rows) {
+            if (null == row) {
+                continue;
+            }
+            for (Map.Entry<String, Object> entry : row.entrySet()) {
+                Object value = entry.getValue();
+                if (value instanceof String) {
+                    String shared = intern(entry.getKey(), (String) value);
+                    if (shared != value) {
+                        entry.setValue(shared);
+                    }
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * @return whether the values of the column are still being interned
+     */
+    public boolean isInterned(String column) {
+        Map<String, String> values = columns.get(column);
+        return null != values && values != HIGH_CARDINALITY;
+    }
+}
@@ -0,0 +1,74 @@
+package lazydevs.mapper.utils.engine;
+
+import java.io.Writer;
+import java.util.Arrays;
+
+/**
+ * Unsynchronised, reusable alternative to {@link java.io.StringWriter}: the rendered characters stay in
+ * {@link #getBuffer()} so they can be handed to a parser without first being copied into a String.
+ *
+ * @author Abhijeet Rai
+ */
+class CharBufferWriter extends Writer {
+    private static final int INITIAL_CAPACITY = 1024;
+    // Buffers that grew beyond this (one huge render) are not kept around for the next one
+    private static final int MAX_RETAINED_CAPACITY = 1024 * 1024;
+
+    private char[] buffer = new char[INITIAL_CAPACITY];
+    private int length;
+    boolean inUse;
+
+    @Override
+    public void write(int c) {
+        ensureCapacity(length + 1);
+        buffer[length++] = (char) c;
+    }
+
+    @Override
+    public void write(char[] chars, int offset, int len) {
+        ensureCapacity(length + len);
+        System.arraycopy(chars, offset, buffer, length, len);
+        length += len;
+    }
+
+    @Override
+    public void write(String str, int offset, int len) {
+        ensureCapacity(length + len);
+        str.getChars(offset, offset + len, buffer, length);
+        length += len;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length << 1, capacity));
+        }
+    }
+
+    char[] getBuffer() {
+        return buffer;
+    }
+
+    int length() {
+        return length;
+    }
+
+    void reset() {
+        length = 0;
+        if (buffer.length > MAX_RETAINED_CAPACITY) {
+            buffer = new char[INITIAL_CAPACITY];
+        }
+    }
+
+    @Override
+    public void flush() {
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public String toString() {
+        return new String(buffer, 0, length);
+    }
+}
@@ -0,0 +1,15 @@
+package lazydevs.mapper.utils.engine;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * A parsed template, ready to be rendered any number of times and from any number of threads.
+ *
+ * @author Abhijeet Rai
+ */
+public interface CompiledTemplate {
+
+    void process(Map<String, Object> datapoints, Writer writer) throws IOException;
+}
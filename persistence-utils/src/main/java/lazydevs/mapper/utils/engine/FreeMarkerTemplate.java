@@ -0,0 +1,36 @@
+package lazydevs.mapper.utils.engine;
+
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import freemarker.template.TemplateException;
+import freemarker.template.TemplateModel;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+
+/**
+ * @author Abhijeet Rai
+ */
+class FreeMarkerTemplate implements CompiledTemplate {
+    private final Template template;
+    private final Map<String, TemplateModel> builtIns;
+
+    FreeMarkerTemplate(String templateSource, Configuration configuration, Map<String, TemplateModel> builtIns) {
+        try {
+            this.template = new Template("", templateSource, configuration);
+        } catch (IOException e) {
+            throw new RuntimeException("Exception when replacing values " + e.getMessage(), e);
+        }
+        this.builtIns = builtIns;
+    }
+
+    @Override
+    public void process(Map<String, Object> datapoints, Writer writer) throws IOException {
+        try {
+            template.process(new TemplateDataModel(builtIns, datapoints, template.getObjectWrapper()), writer);
+        } catch (TemplateException e) {
+            throw new RuntimeException("Exception when replacing values " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package lazydevs.mapper.utils.engine;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+/**
+ * Fast path for templates that are nothing but literal text and plain <code>${a.b.c}</code> interpolations.
+ * <p>
+ * Such a template is compiled into a list of literals and pre-split accessor paths, and rendered by walking the maps
+ * and concatenating, without ever entering FreeMarker. Whenever a render meets something whose FreeMarker output is
+ * not trivially its {@code toString()} (a missing value, a bean, a decimal, a boolean ...) the whole render is handed
+ * over to the FreeMarker fallback, so output and errors stay exactly what FreeMarker would have produced.
+ * Without a fallback (the standalone "placeholder" engine) values are rendered with {@link String#valueOf(Object)}
+ * and a missing value is an error.
+ *
+ * @author Abhijeet Rai
+ */
+class PlaceholderTemplate implements CompiledTemplate {
+    private static final Pattern PATH = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)*");
+    // FreeMarker reads these as literals/operators rather than as top-level variables
+    private static final Set<String> KEYWORDS = Set.of("true", "false", "gt", "gte", "lt", "lte", "as", "in", "using");
+    private static final String[] DIRECTIVE_MARKERS = {"<#", "</#", "<@", "</@", "#{", "[#", "[/#", "[@", "[/@", "[="};
+
+    private final String[] literals;// literals[i] precedes paths[i], the last literal trails the last path
+    private final String[][] paths;
+    private final int estimatedLength;
+    private final Supplier<CompiledTemplate> fallbackSupplier;
+    private volatile CompiledTemplate fallback;
+
+    private PlaceholderTemplate(String[] literals, String[][] paths, Supplier<CompiledTemplate> fallbackSupplier) {
+        this.literals = literals;
+        this.paths = paths;
+        this.fallbackSupplier = fallbackSupplier;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.estimatedLength = length + 16 * paths.length;
+    }
+
+    /**
+     * @return the compiled fast-path template, or null when the source uses anything beyond plain interpolations
+     */
+    static PlaceholderTemplate tryCompile(String source, Set<String> reservedNames, Supplier<CompiledTemplate> fallbackSupplier) {
+        for (String marker : DIRECTIVE_MARKERS) {
+            if (source.contains(marker)) {
+                return null;
+            }
+        }
+        List<String> literals = new ArrayList<>();
+        List<String[]> paths = new ArrayList<>();
+        int from = 0;
+        int start;
+        while ((start = source.indexOf("${", from)) >= 0) {
+            int end = source.indexOf('}', start + 2);
+            if (end < 0) {
+                return null;
+            }
+            String expression = source.substring(start + 2, end).trim();
+            if (!PATH.matcher(expression).matches()) {
+                return null;
+            }
+            String[] path = expression.split("\\.");
+            if (reservedNames.contains(path[0]) || KEYWORDS.contains(path[0])) {
+                return null;
+            }
+            literals.add(source.substring(from, start));
+            paths.add(path);
+            from = end + 1;
+        }
+        literals.add(source.substring(from));
+        return new PlaceholderTemplate(literals.toArray(new String[0]), paths.toArray(new String[0][]), fallbackSupplier);
+    }
+
+    @Override
+    public void process(Map<String, Object> datapoints, Writer writer) throws IOException {
+        String rendered = render(datapoints);
+        if (null == rendered) {
+            getFallback().process(datapoints, writer);
+        } else {
+            writer.write(rendered);
+        }
+    }
+
+    /**
+     * @return the rendered text, or null when the values need FreeMarker's own handling
+     */
+    String render(Map<String, Object> datapoints) {
+        if (paths.length == 0) {
+            return literals[0];
+        }
+        StringBuilder sb = new StringBuilder(estimatedLength);
+        for (int i = 0; i < paths.length; i++) {
+            String value = format(resolve(datapoints, paths[i]), paths[i]);
+            if (null == value) {
+                return null;
+            }
+            sb.append(literals[i]).append(value);
+        }
+        return sb.append(literals[paths.length]).toString();
+    }
+
+    private static Object resolve(Map<String, Object> datapoints, String[] path) {
+        Object value = datapoints;
+        for (String key : path) {
+            if (!(value instanceof Map)) {
+                return null;
+            }
+            value = ((Map<?, ?>) value).get(key);
+        }
+        return value;
+    }
+
+    private String format(Object value, String[] path) {
+        if (value instanceof String) {
+            return (String) value;
+        }
+        if (value instanceof Integer || value instanceof Long || value instanceof Short
+                || value instanceof Byte || value instanceof BigInteger) {
+            return value.toString();
+        }
+        if (null != fallbackSupplier) {
+            return null;
+        }
+        if (null == value) {
+            throw new IllegalArgumentException("No value found for '${" + String.join(".", path) + "}'");
+        }
+        return String.valueOf(value);
+    }
+
+    /**
+     * @return the FreeMarker template to render with when {@link #render(Map)} returns null
+     */
+    CompiledTemplate getFallback() {
+        CompiledTemplate compiled = fallback;
+        if (null == compiled) {
+            compiled = fallbackSupplier.get();
+            fallback = compiled;
+        }
+        return compiled;
+    }
+}
@@ -0,0 +1,27 @@
+package lazydevs.mapper.utils.engine;
+
+import java.util.Collections;
+
+/**
+ * Engine that only understands literal text and <code>${a.b.c}</code> interpolations and never touches FreeMarker.
+ * Values are rendered with {@link String#valueOf(Object)}, and a missing value is an error.
+ *
+ * @author Abhijeet Rai
+ */
+public class PlaceholderTemplateEngineProvider implements TemplateEngineProvider {
+    public static final String NAME = "placeholder";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public CompiledTemplate compile(String templateSource) {
+        PlaceholderTemplate template = PlaceholderTemplate.tryCompile(templateSource, Collections.emptySet(), null);
+        if (null == template) {
+            throw new IllegalArgumentException("Template uses more than plain ${...} interpolations and is not supported by the '" + NAME + "' engine: " + templateSource);
+        }
+        return template;
+    }
+}
@@ -2,21 +2,38 @@ package lazydevs.mapper.utils.engine;
 
 
 import lazydevs.mapper.utils.file.FileUtils;
-import lazydevs.mapper.utils.reflection.InitDTO;
-import lombok.Getter;
-import lombok.Setter;
-import lombok.ToString;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.Invocable;
 import javax.script.ScriptEngine;
+import javax.script.ScriptEngineFactory;
 import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
 import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
-//TODO: Create an enum to support Jav
+import static java.lang.String.format;
+
+/**
+ * Script engines by language.
+ * <p>
+ * A {@link ScriptEngine} is not safe to share between threads, so each constant keeps a pool of independent engine
+ * instances (contexts). A call borrows one, makes sure it has seen every script loaded through
+ * {@link #loadScript(String)} and every global set through {@link #put(String, Object)} so far (replaying whatever it
+ * missed), runs, and gives it back. The pool grows to the number of threads using the engine concurrently, but keeps at
+ * most {@code lazydevs.script.engine.maxPooledContexts} (twice the processors by default) contexts: the ones given back
+ * beyond that are dropped, so a burst of threads does not hold on to its engines for good.
+ */
 public enum ScriptEngines {
 
     JAVASCRIPT("javascript"),
@@ -25,11 +42,17 @@ public enum ScriptEngines {
     ;
 
     private static final Logger log = LoggerFactory.getLogger(ScriptEngines.class );
+    private static final int COMPILED_SCRIPT_CACHE_SIZE = 256;
+    private static final int MAX_POOLED_CONTEXTS = Integer.getInteger("lazydevs.script.engine.maxPooledContexts", 2 * Runtime.getRuntime().availableProcessors());
 
-    private static final ScriptEngineManager scriptEngineManager = new ScriptEngineManager();
-    @Getter
-    private final ScriptEngine scriptEngine;
     private final String name;
+    private final ScriptEngineFactory factory;
+    private final List<String> scripts = new CopyOnWriteArrayList<>();
+    private final Map<String, Object> globals = new LinkedHashMap<>();
+    private final AtomicInteger globalsVersion = new AtomicInteger();
+    private final ConcurrentLinkedDeque<PooledScriptContext> pool = new ConcurrentLinkedDeque<>();
+    private final AtomicInteger pooled = new AtomicInteger();// the size of the pool, which the deque takes O(n) to count
+    private volatile PooledScriptContext primary;
 
     static{
         new ScriptEngineManager().getEngineFactories().forEach(f-> {
@@ -38,12 +61,13 @@ public enum ScriptEngines {
     }
     ScriptEngines(String name){
         this.name = name;
-        scriptEngine = new ScriptEngineManager().getEngineByName(name);
+        ScriptEngine scriptEngine = new ScriptEngineManager().getEngineByName(name);
+        this.factory = null == scriptEngine ? null : scriptEngine.getFactory();
         validate(false);
     }
 
     private void validate(boolean throwException){
-        if(scriptEngine == null){
+        if(factory == null){
             if(throwException) {
                 throw new IllegalStateException("scriptEngine not found with name = " + this.name);
             }else{
@@ -52,6 +76,36 @@ public enum ScriptEngines {
         }
     }
 
+    /**
+     * @return whether an engine is available for this language
+     */
+    public boolean isAvailable() {
+        return null != factory;
+    }
+
+    /**
+     * @return the engine of the first pooled context, or null if no engine is available for this language.
+     * @deprecated engines are pooled per thread now; values put directly on this engine are not seen by the other
+     * contexts, use {@link #put(String, Object)} instead.
+     */
+    @Deprecated
+    public ScriptEngine getScriptEngine() {
+        if (null == factory) {
+            return null;
+        }
+        if (null == primary) {
+            synchronized (pool) {
+                if (null == primary) {
+                    PooledScriptContext context = new PooledScriptContext(factory.getScriptEngine());
+                    context.sync(this);
+                    giveBack(context);
+                    primary = context;
+                }
+            }
+        }
+        return primary.engine;
+    }
+
     public void loadScriptFromFile(String filePath){
         loadScript(FileUtils.readFileAsString(filePath));
     }
@@ -60,24 +114,152 @@ public enum ScriptEngines {
         loadScript(FileUtils.readInputStreamAsString(inputStream));
     }
 
+    /**
+     * Evaluates the script in one context right away (so errors surface here) and replays it into every other
+     * context before its next use. A script that fails to evaluate is not replayed.
+     */
     public void loadScript(String scriptAsText){
         validate(true);
-        try {
-            this.scriptEngine.eval(scriptAsText);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+        synchronized (scripts) {// keeps the replay order identical to the load order
+            withContext(context -> {
+                try {
+                    context.engine.eval(scriptAsText);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+                scripts.add(scriptAsText);
+                context.scriptsLoaded = scripts.size();
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Makes the value available as a global variable in every context.
+     */
+    public void put(String key, Object value){
+        validate(true);
+        synchronized (globals) {
+            globals.put(key, value);
+            globalsVersion.incrementAndGet();
         }
     }
 
     public Object invokeFunction(String expression, Object... args) {
         validate(true);
-        Invocable invocable = (Invocable) this.scriptEngine;
+        return withContext(context -> {
+            try {
+                return ((Invocable) context.engine).invokeFunction(expression, args);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    /**
+     * Same as calling {@link #invokeFunction(String, Object...)} with each item in turn, but on one context borrowed for
+     * all of them, so the pool hand-off and the replay check are paid once, not per item. The function is still called
+     * once per item; a function that takes the whole list is called with {@code invokeFunction(functionName, items)}.
+     *
+     * @return the function's result for each item, in the order of the items
+     */
+    public List<Object> invokeFunctionInOneContext(String functionName, List<?> items) {
+        validate(true);
+        return withContext(context -> {
+            Invocable invocable = (Invocable) context.engine;
+            List<Object> results = new ArrayList<>(items.size());
+            try {
+                for (Object item : items) {
+                    results.add(invocable.invokeFunction(functionName, item));
+                }
+            } catch (Exception e) {
+                throw new RuntimeException(format("Error while invoking function = '%s' for item %d of %d", functionName, results.size(), items.size()), e);
+            }
+            return results;
+        });
+    }
+
+    /**
+     * Evaluates the script and returns its result. The script is compiled once per context when the engine is
+     * {@link Compilable}.
+     */
+    public Object eval(String script) {
+        validate(true);
+        return withContext(context -> {
+            try {
+                return context.eval(script);
+            } catch (Exception e) {
+                throw new RuntimeException(e);
+            }
+        });
+    }
+
+    private <T> T withContext(Function<PooledScriptContext, T> function) {
+        PooledScriptContext context = pool.poll();
+        if (null == context) {
+            context = new PooledScriptContext(factory.getScriptEngine());
+        } else {
+            pooled.decrementAndGet();
+        }
         try {
-            return invocable.invokeFunction(expression, args);
-        } catch (Exception e) {
-            throw new RuntimeException(e);
+            context.sync(this);
+            return function.apply(context);
+        } finally {
+            giveBack(context);
         }
     }
 
+    private void giveBack(PooledScriptContext context) {
+        if (pooled.incrementAndGet() <= MAX_POOLED_CONTEXTS) {
+            pool.push(context);
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+
+    int pooledContexts() {
+        return pooled.get();
+    }
 
+    private static class PooledScriptContext {
+        private final ScriptEngine engine;
+        private final TemplateCache<CompiledScript> compiledScripts = new TemplateCache<>(COMPILED_SCRIPT_CACHE_SIZE, Integer.MAX_VALUE);
+        private int scriptsLoaded;
+        private int globalsVersion = -1;
+
+        PooledScriptContext(ScriptEngine engine) {
+            this.engine = engine;
+        }
+
+        void sync(ScriptEngines scriptEngine) {
+            if (globalsVersion != scriptEngine.globalsVersion.get()) {
+                synchronized (scriptEngine.globals) {
+                    scriptEngine.globals.forEach(engine::put);
+                    globalsVersion = scriptEngine.globalsVersion.get();
+                }
+            }
+            List<String> scripts = scriptEngine.scripts;
+            while (scriptsLoaded < scripts.size()) {
+                String script = scripts.get(scriptsLoaded++);
+                try {
+                    engine.eval(script);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        }
+
+        Object eval(String script) throws ScriptException {
+            if (!(engine instanceof Compilable)) {
+                return engine.eval(script);
+            }
+            return compiledScripts.get(script, s -> {
+                try {
+                    return ((Compilable) engine).compile(s);
+                } catch (ScriptException e) {
+                    throw new RuntimeException(e);
+                }
+            }).eval();
+        }
+    }
 }
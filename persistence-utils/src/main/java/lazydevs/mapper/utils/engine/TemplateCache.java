@@ -0,0 +1,146 @@
+package lazydevs.mapper.utils.engine;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Bounded, thread-safe LRU cache of compiled templates keyed by their source text.
+ * <p>
+ * Compilation happens outside the lock, so two threads missing on the same source at the same time may both compile it;
+ * the first one to finish wins and the other result is discarded. That is cheaper than serialising every parse.
+ *
+ * @author Abhijeet Rai
+ */
+public class TemplateCache<T> {
+
+    public static final int DEFAULT_MAX_SIZE = 1_000;
+    public static final int DEFAULT_MAX_TEMPLATE_LENGTH = 64 * 1024;
+
+    private final LinkedHashMap<String, T> cache;
+    @Getter private volatile int maxSize;
+    @Getter private volatile int maxTemplateLength;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder uncacheable = new LongAdder();
+    private final LongAdder parseTimeNanos = new LongAdder();
+
+    public TemplateCache() {
+        this(DEFAULT_MAX_SIZE, DEFAULT_MAX_TEMPLATE_LENGTH);
+    }
+
+    public TemplateCache(int maxSize, int maxTemplateLength) {
+        this.maxSize = maxSize;
+        this.maxTemplateLength = maxTemplateLength;
+        this.cache = new LinkedHashMap<String, T>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, T> eldest) {
+                boolean evict = size() > TemplateCache.this.maxSize;
+                if (evict) {
+                    evictions.increment();
+                }
+                return evict;
+            }
+        };
+    }
+
+    /**
+     * @param source   the template source, used as the cache key
+     * @param compiler compiles the source on a miss
+     * @return the cached compiled template, compiling (and caching) it when absent
+     */
+    public T get(String source, Function<String, T> compiler) {
+        if (maxSize <= 0 || source.length() > maxTemplateLength) {
+            uncacheable.increment();
+            return compile(source, compiler);
+        }
+        T compiled;
+        synchronized (cache) {
+            compiled = cache.get(source);
+        }
+        if (null != compiled) {
+            hits.increment();
+            return compiled;
+        }
+        misses.increment();
+        compiled = compile(source, compiler);
+        synchronized (cache) {
+            T existing = cache.putIfAbsent(source, compiled);
+            return null == existing ? compiled : existing;
+        }
+    }
+
+    private T compile(String source, Function<String, T> compiler) {
+        long start = System.nanoTime();
+        try {
+            return compiler.apply(source);
+        } finally {
+            parseTimeNanos.add(System.nanoTime() - start);
+        }
+    }
+
+    public void setMaxSize(int maxSize) {
+        synchronized (cache) {
+            this.maxSize = maxSize;
+            if (cache.size() > Math.max(maxSize, 0)) {
+                Iterator<Map.Entry<String, T>> it = cache.entrySet().iterator();
+                while (cache.size() > Math.max(maxSize, 0) && it.hasNext()) {
+                    it.next();
+                    it.remove();
+                    evictions.increment();
+                }
+            }
+        }
+    }
+
+    public void setMaxTemplateLength(int maxTemplateLength) {
+        this.maxTemplateLength = maxTemplateLength;
+    }
+
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    public void clear() {
+        synchronized (cache) {
+            cache.clear();
+        }
+    }
+
+    public Stats getStats() {
+        return new Stats(hits.sum(), misses.sum(), evictions.sum(), uncacheable.sum(), parseTimeNanos.sum(), size());
+    }
+
+    public void resetStats() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+        uncacheable.reset();
+        parseTimeNanos.reset();
+    }
+
+    @Getter @ToString @AllArgsConstructor
+    public static class Stats {
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+        private final long uncacheableCount;
+        private final long totalParseTimeNanos;
+        private final int size;
+
+        public double getHitRate() {
+            long requests = hitCount + missCount;
+            return requests == 0 ? 0.0 : (double) hitCount / requests;
+        }
+    }
+}
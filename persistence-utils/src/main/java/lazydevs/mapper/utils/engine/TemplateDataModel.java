@@ -0,0 +1,69 @@
+package lazydevs.mapper.utils.engine;
+
+import freemarker.template.ObjectWrapper;
+import freemarker.template.SimpleCollection;
+import freemarker.template.TemplateCollectionModel;
+import freemarker.template.TemplateHashModelEx;
+import freemarker.template.TemplateModel;
+import freemarker.template.TemplateModelException;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Read-only root data-model handed to FreeMarker: the shared built-in functions layered over the caller's map.
+ * <p>
+ * Nothing is copied, built-ins win over same-named datapoints (as they did when both were merged into one map),
+ * and the caller's values are wrapped lazily, only when the template actually reads them.
+ *
+ * @author Abhijeet Rai
+ */
+class TemplateDataModel implements TemplateHashModelEx {
+    private final Map<String, ? extends TemplateModel> builtIns;
+    private final Map<String, Object> datapoints;
+    private final ObjectWrapper objectWrapper;
+
+    TemplateDataModel(Map<String, ? extends TemplateModel> builtIns, Map<String, Object> datapoints, ObjectWrapper objectWrapper) {
+        this.builtIns = builtIns;
+        this.datapoints = null == datapoints ? Collections.emptyMap() : datapoints;
+        this.objectWrapper = objectWrapper;
+    }
+
+    @Override
+    public TemplateModel get(String key) throws TemplateModelException {
+        TemplateModel builtIn = builtIns.get(key);
+        if (null != builtIn) {
+            return builtIn;
+        }
+        Object value = datapoints.get(key);
+        return null == value ? null : objectWrapper.wrap(value);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return builtIns.isEmpty() && datapoints.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return merged().size();
+    }
+
+    @Override
+    public TemplateCollectionModel keys() {
+        return new SimpleCollection(merged().keySet(), objectWrapper);
+    }
+
+    @Override
+    public TemplateCollectionModel values() {
+        return new SimpleCollection(merged().values(), objectWrapper);
+    }
+
+    // Only ?keys/?values on the root need this, so it is fine to build it on demand
+    private Map<String, Object> merged() {
+        Map<String, Object> merged = new LinkedHashMap<>(datapoints);
+        merged.putAll(builtIns);
+        return merged;
+    }
+}
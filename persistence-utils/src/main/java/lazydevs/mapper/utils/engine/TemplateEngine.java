@@ -8,6 +8,7 @@ import freemarker.cache.TemplateLoader;
 import freemarker.ext.util.WrapperTemplateModel;
 import lazydevs.mapper.utils.SerDe;
 import lazydevs.mapper.utils.file.FileUtils;
+import lombok.Getter;
 import freemarker.template.*;
 
 import java.io.File;
@@ -15,6 +16,9 @@ import java.io.IOException;
 import java.io.StringWriter;
 import java.io.Writer;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 
 public class TemplateEngine {
@@ -25,9 +29,68 @@ public class TemplateEngine {
         return INSTANCE;
     }
     private Configuration configuration;
+    @Getter
+    private final TemplateCache<CompiledTemplate> templateCache = new TemplateCache<>(
+            Integer.getInteger("lazydevs.template.cache.maxSize", TemplateCache.DEFAULT_MAX_SIZE),
+            Integer.getInteger("lazydevs.template.cache.maxTemplateLength", TemplateCache.DEFAULT_MAX_TEMPLATE_LENGTH));
+
+    private final Map<String, TemplateModel> builtIns;
+    private final ThreadLocal<CharBufferWriter> charBuffers = ThreadLocal.withInitial(CharBufferWriter::new);
+
+    public static final String FREEMARKER = "freemarker";
+    private static final String ENGINE_HEADER_PREFIX = "<#-- engine:";
+    private static final String ENGINE_HEADER_SUFFIX = "-->";
+    private final Map<String, TemplateEngineProvider> providers = new ConcurrentHashMap<>();
+    @Getter
+    private final String defaultEngine = System.getProperty("lazydevs.template.engine", FREEMARKER);
 
     private TemplateEngine() {
         init();
+        this.builtIns = createBuiltIns();
+        register(new FreeMarkerProvider());
+        register(new PlaceholderTemplateEngineProvider());
+        ServiceLoader.load(TemplateEngineProvider.class).forEach(this::register);
+    }
+
+    /**
+     * Registers (or replaces) the engine under its {@link TemplateEngineProvider#getName()}.
+     */
+    public void register(TemplateEngineProvider provider) {
+        providers.put(provider.getName(), provider);
+        templateCache.clear();
+    }
+
+    /**
+     * Removes the engine registered under the name, if any; templates that ask for it fail from then on.
+     */
+    public void unregister(String engineName) {
+        providers.remove(engineName);
+        templateCache.clear();
+    }
+
+    public Set<String> getEngineNames() {
+        return Collections.unmodifiableSet(providers.keySet());
+    }
+
+    /**
+     * @return the template source prefixed with the header that makes it render with the given engine
+     */
+    public static String withEngine(String engineName, String templateSource) {
+        return null == engineName ? templateSource : ENGINE_HEADER_PREFIX + " " + engineName + " " + ENGINE_HEADER_SUFFIX + templateSource;
+    }
+
+    private Map<String, TemplateModel> createBuiltIns() {
+        Map<String, TemplateModel> map = new HashMap<>();
+        map.put("uuid", new Uuid());
+        map.put("eval", new Eval());
+        //map.put("evalObject", new EvalObject());
+        //map.put("evalJson", new EvalObjectAsJson());
+        map.put("file", new FileAsString());
+        map.put("trim", new Trim());
+        map.put("js", new JavaScript());
+        map.put("serde_deserializeToMap", new SerdeDeserializeToMap());
+        map.put("serde_serialize", new SerdeSerialize());
+        return Collections.unmodifiableMap(map);
     }
 
     private void init() {
@@ -74,58 +137,135 @@ public class TemplateEngine {
     }
 
     public String generate(String templateSource, Map<String, Object> data) {
-            StringWriter stringWriter = new StringWriter();
-            generate(stringWriter, templateSource, data);
-            return stringWriter.toString();
+        CompiledTemplate compiled = templateCache.get(templateSource, this::compile);
+        if (compiled instanceof PlaceholderTemplate) {
+            PlaceholderTemplate placeholder = (PlaceholderTemplate) compiled;
+            String rendered = placeholder.render(data);
+            if (null != rendered) {
+                return rendered;
+            }
+            // straight to FreeMarker, process() would render it again first
+            compiled = placeholder.getFallback();
+        }
+        StringWriter stringWriter = new StringWriter();
+        process(compiled, data, stringWriter);
+        return stringWriter.toString();
     }
 
     public void generate(Writer writer, String templateSource, Map<String, Object> datapoints) {
-        try {
-            Map<String, Object> data = new HashMap<>(datapoints);
-            data.put("uuid", new Uuid());
-            data.put("eval", new Eval());
-            //data.put("evalObject", new EvalObject());
-            //data.put("evalJson", new EvalObjectAsJson());
-            data.put("file", new FileAsString());
-            data.put("trim",new Trim());
-            data.put("js", new JavaScript());
-            data.put("serde_deserializeToMap", new TemplateMethodModelEx() {
-                @Override
-                public Object exec(List arguments) throws TemplateModelException {
-                    if(arguments.size() != 1 ){
-                        throw new IllegalArgumentException("Method 'serde_deserializeToMap' requires exactly 1 String input");
-                    }
-                    return SerDe.JSON.deserializeToMap(String.valueOf(arguments.get(0)));
-                }
-            });
-
-            data.put("serde_serialize", new TemplateMethodModelEx() {
-                @Override
-                public Object exec(List arguments) throws TemplateModelException {
-                    if(arguments.size() != 1 ){
-                        throw new IllegalArgumentException("Method 'serde_serialize' requires exactly 1 Object");
-                    }
-                    Object obj = arguments.get(0);
-
-                    // Unwrap FreeMarker's DefaultMapAdapter to get the actual Java object
-                    if (obj instanceof WrapperTemplateModel) {
-                        try {
-                            obj = ((WrapperTemplateModel) obj).getWrappedObject();
-                        } catch (Exception e) {
-                            throw new TemplateModelException("Failed to unwrap object", e);
-                        }
-                    }
-                    return SerDe.JSON.serialize(obj);
-                }
-            });
+        process(templateCache.get(templateSource, this::compile), datapoints, writer);
+    }
 
-            Template e = new Template("", templateSource, this.configuration);
-            e.process(data, writer);
-        } catch (TemplateException | IOException e) {
+    private static void process(CompiledTemplate compiled, Map<String, Object> datapoints, Writer writer) {
+        try {
+            compiled.process(datapoints, writer);
+        } catch (IOException e) {
             throw new RuntimeException("Exception when replacing values " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Renders the template straight into a pooled char buffer and deserializes the result from there,
+     * so the rendered text never becomes an intermediate String.
+     */
+    public <T> T generate(String templateSource, Map<String, Object> datapoints, SerDe serDe, Class<T> type) {
+        return render(templateSource, datapoints, buffer -> serDe.deserialize(buffer.getBuffer(), 0, buffer.length(), type));
+    }
+
+    public Map<String, Object> generateToMap(String templateSource, Map<String, Object> datapoints) {
+        return generate(templateSource, datapoints, SerDe.JSON, Map.class);
+    }
+
+    public List<Map<String, Object>> generateToListOfMap(String templateSource, Map<String, Object> datapoints) {
+        return render(templateSource, datapoints, buffer -> SerDe.JSON.deserializeToListOfMap(buffer.getBuffer(), 0, buffer.length()));
+    }
+
+    private <T> T render(String templateSource, Map<String, Object> datapoints, Function<CharBufferWriter, T> reader) {
+        CharBufferWriter buffer = charBuffers.get();
+        if (buffer.inUse) {// re-entrant call from within a template function, don't clobber the outer render
+            buffer = new CharBufferWriter();
+        }
+        buffer.inUse = true;
+        try {
+            generate(buffer, templateSource, datapoints);
+            return reader.apply(buffer);
+        } finally {
+            buffer.reset();
+            buffer.inUse = false;
+        }
+    }
+
+    private CompiledTemplate compile(String templateSource) {
+        if (templateSource.startsWith(ENGINE_HEADER_PREFIX)) {
+            int end = templateSource.indexOf(ENGINE_HEADER_SUFFIX);
+            if (end > 0) {
+                String engineName = templateSource.substring(ENGINE_HEADER_PREFIX.length(), end).trim();
+                return getProvider(engineName).compile(stripLeadingNewLine(templateSource.substring(end + ENGINE_HEADER_SUFFIX.length())));
+            }
+        }
+        return getProvider(defaultEngine).compile(templateSource);
+    }
+
+    private TemplateEngineProvider getProvider(String engineName) {
+        TemplateEngineProvider provider = providers.get(engineName);
+        if (null == provider) {
+            throw new IllegalArgumentException("No template engine registered with name = '" + engineName + "'. Available engines = " + providers.keySet());
+        }
+        return provider;
+    }
+
+    // FreeMarker drops a line holding nothing but a comment, so the header line should not leave a blank line behind either
+    private static String stripLeadingNewLine(String templateSource) {
+        if (templateSource.startsWith("\r\n")) {
+            return templateSource.substring(2);
+        }
+        return templateSource.startsWith("\n") ? templateSource.substring(1) : templateSource;
+    }
+
+    private class FreeMarkerProvider implements TemplateEngineProvider {
+        @Override
+        public String getName() {
+            return FREEMARKER;
+        }
+
+        @Override
+        public CompiledTemplate compile(String templateSource) {
+            Supplier<CompiledTemplate> freeMarker = () -> new FreeMarkerTemplate(templateSource, configuration, builtIns);
+            CompiledTemplate placeholder = PlaceholderTemplate.tryCompile(templateSource, builtIns.keySet(), freeMarker);
+            return null == placeholder ? freeMarker.get() : placeholder;
+        }
+    }
+
+    private static class SerdeDeserializeToMap implements TemplateMethodModelEx {
+        @Override
+        public Object exec(List arguments) throws TemplateModelException {
+            if(arguments.size() != 1 ){
+                throw new IllegalArgumentException("Method 'serde_deserializeToMap' requires exactly 1 String input");
+            }
+            return SerDe.JSON.deserializeToMap(String.valueOf(arguments.get(0)));
+        }
+    }
+
+    private static class SerdeSerialize implements TemplateMethodModelEx {
+        @Override
+        public Object exec(List arguments) throws TemplateModelException {
+            if(arguments.size() != 1 ){
+                throw new IllegalArgumentException("Method 'serde_serialize' requires exactly 1 Object");
+            }
+            Object obj = arguments.get(0);
+
+            // Unwrap FreeMarker's DefaultMapAdapter to get the actual Java object
+            if (obj instanceof WrapperTemplateModel) {
+                try {
+                    obj = ((WrapperTemplateModel) obj).getWrappedObject();
+                } catch (Exception e) {
+                    throw new TemplateModelException("Failed to unwrap object", e);
+                }
+            }
+            return SerDe.JSON.serialize(obj);
+        }
+    }
+
     private static class Uuid implements TemplateMethodModelEx {
         @Override
         public Object exec(List arguments) throws TemplateModelException {
@@ -206,7 +346,7 @@ public class TemplateEngine {
 
 
     private String eval(String template){
-        return generate(template, new HashMap<>());
+        return generate(template, Collections.emptyMap());
     }
 
     /*private static Object evalObject(String expression){
@@ -0,0 +1,23 @@
+package lazydevs.mapper.utils.engine;
+
+/**
+ * SPI for plugging another template language/implementation into {@link TemplateEngine}.
+ * <p>
+ * Providers are discovered with {@link java.util.ServiceLoader} (list the class in
+ * <code>META-INF/services/lazydevs.mapper.utils.engine.TemplateEngineProvider</code>) or registered through
+ * {@link TemplateEngine#register(TemplateEngineProvider)}. A template selects its engine with a leading
+ * <code>&lt;#-- engine: name --&gt;</code> header, which FreeMarker itself treats as a comment; templates without
+ * the header use the default engine, "freemarker" unless the <code>lazydevs.template.engine</code> system property
+ * says otherwise.
+ *
+ * @author Abhijeet Rai
+ */
+public interface TemplateEngineProvider {
+
+    String getName();
+
+    /**
+     * Compiled templates are cached by {@link TemplateEngine}, so this is called once per distinct source.
+     */
+    CompiledTemplate compile(String templateSource);
+}
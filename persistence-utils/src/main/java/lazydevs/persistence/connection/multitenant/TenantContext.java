@@ -1,5 +1,7 @@
 package lazydevs.persistence.connection.multitenant;
 
+import java.util.concurrent.Executor;
+
 public class TenantContext {
     private static final ThreadLocal<String> CONTEXT_HOLDER = new ThreadLocal<String>();
 
@@ -15,4 +17,21 @@ public class TenantContext {
         CONTEXT_HOLDER.remove();
     }
 
+    /**
+     * An executor that runs the tasks on {@code executor} with the tenant of the calling thread set, as it is when this
+     * method is called. The tenant the executing thread had is set back once a task is done.
+     */
+    public static Executor propagating(Executor executor) {
+        String tenantId = getTenantId();
+        return task -> executor.execute(() -> {
+            String previousTenantId = getTenantId();
+            setTenantId(tenantId);
+            try {
+                task.run();
+            } finally {
+                setTenantId(previousTenantId);
+            }
+        });
+    }
+
 }
@@ -0,0 +1,97 @@
+package lazydevs.persistence.util;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * AND/OR over terms that reorders them by how often each decided the outcome so far (failed for AND, passed for OR),
+ * so that evaluation over many rows short-circuits as early as possible. The order is re-computed every
+ * {@value #REORDER_INTERVAL} evaluations of a thread.
+ * <p>
+ * The terms must be free of side effects and must not throw: which of them run for a row depends on the order at the
+ * time. Each thread counts in its own statistics and merges them into the shared ones when it re-computes the order,
+ * so a junction can be evaluated from several threads at once; the order is replaced as a whole, so every evaluation
+ * sees a complete one.
+ *
+ * @author Abhijeet Rai
+ */
+final class AdaptiveJunction implements Predicate<Map<String, Object>> {
+    static final int REORDER_INTERVAL = 1024;
+
+    private final boolean and;
+    private final Predicate<Map<String, Object>>[] terms;
+    private final int[] evaluated, decided;// merged from the threads, guarded by this
+    private final ThreadLocal<Statistics> statistics;
+    private volatile int[] order;
+
+    private static final class Statistics {
+        final int[] evaluated, decided;
+        int evaluations;
+
+        Statistics(int terms) {
+            this.evaluated = new int[terms];
+            this.decided = new int[terms];
+        }
+    }
+
+    AdaptiveJunction(boolean and, List<Predicate<Map<String, Object>>> terms) {
+        this.and = and;
+        this.terms = terms.toArray(new Predicate[0]);
+        this.evaluated = new int[this.terms.length];
+        this.decided = new int[this.terms.length];
+        int size = this.terms.length;
+        this.statistics = ThreadLocal.withInitial(() -> new Statistics(size));
+        int[] order = new int[size];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        this.order = order;
+    }
+
+    @Override
+    public boolean test(Map<String, Object> item) {
+        Statistics local = statistics.get();
+        boolean result = and;
+        for (int i : order) {
+            local.evaluated[i]++;
+            if (terms[i].test(item) != and) {
+                local.decided[i]++;
+                result = !and;
+                break;
+            }
+        }
+        if (++local.evaluations == REORDER_INTERVAL) {
+            reorder(local);
+        }
+        return result;
+    }
+
+    // most decisive first; the smoothing keeps a term that has hardly run from being ranked on no evidence
+    private synchronized void reorder(Statistics local) {
+        double[] rate = new double[terms.length];
+        for (int i = 0; i < terms.length; i++) {
+            evaluated[i] += local.evaluated[i];
+            decided[i] += local.decided[i];
+            local.evaluated[i] = 0;
+            local.decided[i] = 0;
+            rate[i] = (decided[i] + 1d) / (evaluated[i] + 2d);
+            // halve the counts, so the order follows changes in the data
+            evaluated[i] >>= 1;
+            decided[i] >>= 1;
+        }
+        local.evaluations = 0;
+        order = Arrays.stream(order).boxed()
+                .sorted(Comparator.comparingDouble(i -> -rate[i]))
+                .mapToInt(Integer::intValue).toArray();
+    }
+
+    /**
+     * @return the current order of the terms, as indexes into the list given to the constructor
+     */
+    int[] getOrder() {
+        return order.clone();
+    }
+}
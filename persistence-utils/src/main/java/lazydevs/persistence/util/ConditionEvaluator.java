@@ -4,13 +4,18 @@ import lombok.Data;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Predicate;
 import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 /**
  * Generic condition evaluator - returns true/false based on condition evaluation
  */
 @Slf4j
 public class ConditionEvaluator {
+    public static final int PARALLEL_THRESHOLD = 4096;
 
     public enum LogicalOperator {
         AND, OR
@@ -136,10 +141,268 @@ public class ConditionEvaluator {
         return result;
     }
 
+    /**
+     * Compiles the request into a predicate with the same result as {@link #evaluate(ConditionRequest, Map)}, for
+     * evaluating it against many rows. Field paths are resolved once, regexes compiled once, IN/NOT_IN values hashed
+     * and the expected value of every comparison converted once. The request is read when compiling, later changes
+     * to it are not seen by the predicate.
+     */
+    public static Predicate<Map<String, Object>> compile(@NonNull ConditionRequest request) {
+        Predicate<Map<String, Object>> predicate;
+        if (request.getCondition() != null) {
+            predicate = compileCondition(request.getCondition());
+        } else if (request.getConditions() != null && !request.getConditions().isEmpty()) {
+            predicate = compileConditions(request.getConditions(), request.getLogic() != null ? request.getLogic() : LogicalOperator.OR);
+        } else if (request.getConditionGroups() != null && !request.getConditionGroups().isEmpty()) {
+            List<Predicate<Map<String, Object>>> groups = new ArrayList<>(request.getConditionGroups().size());
+            boolean total = true;
+            for (ConditionGroup group : request.getConditionGroups()) {
+                groups.add(compileConditions(group.getConditions(), group.getLogic()));
+                total &= group.getConditions().stream().noneMatch(ConditionEvaluator::canThrow);
+            }
+            predicate = combine(groups, request.getGroupLogic() != null ? request.getGroupLogic() : LogicalOperator.OR, total);
+        } else {
+            predicate = data -> false;
+        }
+        return nonNullData(predicate);
+    }
+
+    public static Predicate<Map<String, Object>> compile(@NonNull Condition condition) {
+        return nonNullData(compileCondition(condition));
+    }
+
+    public static Predicate<Map<String, Object>> compile(@NonNull List<Condition> conditions, @NonNull LogicalOperator logic) {
+        return nonNullData(compileConditions(conditions, logic));
+    }
+
+    /**
+     * Evaluates the predicate for every row.
+     * <p>
+     * Batches of at least {@value #PARALLEL_THRESHOLD} rows in a random access list are split across the common
+     * fork-join pool, so the predicate must be safe to call from several threads; the compiled ones are.
+     *
+     * @return the indexes of the matching rows
+     */
+    public static BitSet evaluate(@NonNull Predicate<Map<String, Object>> predicate, @NonNull List<Map<String, Object>> rows) {
+        if (rows.size() < PARALLEL_THRESHOLD || !(rows instanceof RandomAccess)) {
+            BitSet matches = new BitSet(rows.size());
+            int i = 0;
+            for (Map<String, Object> row : rows) {
+                if (predicate.test(row)) {
+                    matches.set(i);
+                }
+                i++;
+            }
+            return matches;
+        }
+        long[] words = new long[(rows.size() + 63) >>> 6];
+        ForkJoinPool.commonPool().invoke(new MatchTask(predicate, rows, words, 0, words.length));
+        return BitSet.valueOf(words);
+    }
+
+    /**
+     * @return the matching rows in their order (the given list itself when all of them match), see
+     * {@link #evaluate(Predicate, List)}
+     */
+    public static List<Map<String, Object>> filter(@NonNull Predicate<Map<String, Object>> predicate, @NonNull List<Map<String, Object>> rows) {
+        BitSet matches = evaluate(predicate, rows);
+        if (matches.cardinality() == rows.size()) {
+            return rows;
+        }
+        List<Map<String, Object>> filtered = new ArrayList<>(matches.cardinality());
+        for (int i = matches.nextSetBit(0); i >= 0; i = matches.nextSetBit(i + 1)) {
+            filtered.add(rows.get(i));
+        }
+        return filtered;
+    }
+
+    // each task owns whole words of the result (64 rows), so no two tasks write the same word
+    private static class MatchTask extends RecursiveAction {
+        private static final int WORDS_PER_TASK = 16;
+        private final Predicate<Map<String, Object>> predicate;
+        private final List<Map<String, Object>> rows;
+        private final long[] words;
+        private final int fromWord, toWord;
+
+        MatchTask(Predicate<Map<String, Object>> predicate, List<Map<String, Object>> rows, long[] words, int fromWord, int toWord) {
+            this.predicate = predicate;
+            this.rows = rows;
+            this.words = words;
+            this.fromWord = fromWord;
+            this.toWord = toWord;
+        }
+
+        @Override
+        protected void compute() {
+            if (toWord - fromWord > WORDS_PER_TASK) {
+                int middle = (fromWord + toWord) >>> 1;
+                invokeAll(new MatchTask(predicate, rows, words, fromWord, middle), new MatchTask(predicate, rows, words, middle, toWord));
+                return;
+            }
+            int end = Math.min(rows.size(), toWord << 6);
+            for (int i = fromWord << 6; i < end; i++) {
+                if (predicate.test(rows.get(i))) {
+                    words[i >>> 6] |= 1L << i;
+                }
+            }
+        }
+    }
+
+    private static Predicate<Map<String, Object>> nonNullData(Predicate<Map<String, Object>> predicate) {
+        return data -> predicate.test(Objects.requireNonNull(data, "data is marked non-null but is null"));
+    }
+
+    private static Predicate<Map<String, Object>> compileConditions(@NonNull List<Condition> conditions, @NonNull LogicalOperator logic) {
+        List<Predicate<Map<String, Object>>> compiled = new ArrayList<>(conditions.size());
+        for (Condition condition : conditions) {
+            compiled.add(compileCondition(condition));
+        }
+        return combine(compiled, logic, conditions.stream().noneMatch(ConditionEvaluator::canThrow));
+    }
+
+    // terms that can throw keep their order, a row that short-circuits before one of them must not reach it
+    private static Predicate<Map<String, Object>> combine(List<Predicate<Map<String, Object>>> predicates, LogicalOperator logic, boolean total) {
+        if (predicates.isEmpty()) {
+            return data -> false;
+        }
+        if (predicates.size() == 1) {
+            return predicates.get(0);
+        }
+        if (!total) {
+            return predicates.stream().reduce(logic == LogicalOperator.AND ? Predicate::and : Predicate::or).get();
+        }
+        return new AdaptiveJunction(logic == LogicalOperator.AND, predicates);
+    }
+
+    /**
+     * Whether the compiled condition can throw for some field value: a comparison, which throws for a non-number,
+     * and the operators left to {@link #evaluateCondition(Object, Operator, Object)} by {@link #compile(Operator, Object)}.
+     */
+    static boolean canThrow(@NonNull Condition condition) {
+        Object expectedValue = condition.getValue();
+        switch (condition.getOperator()) {
+            case GREATER_THAN:
+            case LESS_THAN:
+            case GREATER_THAN_OR_EQUAL:
+            case LESS_THAN_OR_EQUAL:
+                return true;
+            case CONTAINS:
+            case NOT_CONTAINS:
+            case STARTS_WITH:
+            case ENDS_WITH:
+                return expectedValue == null;
+            case REGEX_MATCH:
+                if (expectedValue == null) {
+                    return true;
+                }
+                try {
+                    Pattern.compile(expectedValue.toString());
+                    return false;
+                } catch (PatternSyntaxException e) {
+                    return true;
+                }
+            default:
+                return false;
+        }
+    }
+
+    private static Predicate<Map<String, Object>> compileCondition(@NonNull Condition condition) {
+        PathExpression field = PathExpression.compile(condition.getField());
+        Predicate<Object> test = compile(condition.getOperator(), condition.getValue());
+        return data -> test.test(field.get(data));
+    }
+
+    /**
+     * Compiles the operator and its expected value into a test of the field value, with the same result as
+     * {@link #evaluateCondition(Object, Operator, Object)}. Combinations that fail on evaluation (a comparison with a
+     * non-number, an invalid regex) are left to it, so they fail the same way.
+     */
+    static Predicate<Object> compile(@NonNull Operator operator, Object expectedValue) {
+        switch (operator) {
+            case EQUALS:
+                if (expectedValue instanceof String) {
+                    return fieldValue -> expectedValue.equals(String.valueOf(fieldValue));
+                }
+                return fieldValue -> Objects.equals(fieldValue, expectedValue);
+            case NOT_EQUALS:
+                if (expectedValue instanceof String) {
+                    return fieldValue -> !expectedValue.equals(String.valueOf(fieldValue));
+                }
+                return fieldValue -> !Objects.equals(fieldValue, expectedValue);
+            case GREATER_THAN:
+            case LESS_THAN:
+            case GREATER_THAN_OR_EQUAL:
+            case LESS_THAN_OR_EQUAL:
+                if (expectedValue instanceof Number) {
+                    double expected = ((Number) expectedValue).doubleValue();
+                    return fieldValue -> {
+                        if (!(fieldValue instanceof Number)) {
+                            return evaluateCondition(fieldValue, operator, expectedValue);// throws, as it always has
+                        }
+                        int compared = Double.compare(((Number) fieldValue).doubleValue(), expected);
+                        switch (operator) {
+                            case GREATER_THAN: return compared > 0;
+                            case LESS_THAN: return compared < 0;
+                            case GREATER_THAN_OR_EQUAL: return compared >= 0;
+                            default: return compared <= 0;
+                        }
+                    };
+                }
+                break;
+            case CONTAINS:
+            case NOT_CONTAINS:
+            case STARTS_WITH:
+            case ENDS_WITH:
+                if (expectedValue != null) {
+                    String expected = expectedValue.toString();
+                    switch (operator) {
+                        case CONTAINS: return fieldValue -> fieldValue != null && fieldValue.toString().contains(expected);
+                        case NOT_CONTAINS: return fieldValue -> fieldValue == null || !fieldValue.toString().contains(expected);
+                        case STARTS_WITH: return fieldValue -> fieldValue != null && fieldValue.toString().startsWith(expected);
+                        default: return fieldValue -> fieldValue != null && fieldValue.toString().endsWith(expected);
+                    }
+                }
+                break;
+            case EXISTS:
+            case IS_NOT_NULL:
+                return Objects::nonNull;
+            case NOT_EXISTS:
+            case IS_NULL:
+                return Objects::isNull;
+            case IN:
+                if (expectedValue instanceof Collection) {
+                    Set<Object> expected = new HashSet<>((Collection<?>) expectedValue);
+                    return expected::contains;
+                }
+                return fieldValue -> false;
+            case NOT_IN:
+                if (expectedValue instanceof Collection) {
+                    Set<Object> expected = new HashSet<>((Collection<?>) expectedValue);
+                    return fieldValue -> !expected.contains(fieldValue);
+                }
+                return fieldValue -> true;
+            case REGEX_MATCH:
+                if (expectedValue != null) {
+                    try {
+                        Pattern pattern = Pattern.compile(expectedValue.toString());
+                        return fieldValue -> fieldValue != null && pattern.matcher(fieldValue.toString()).matches();
+                    } catch (PatternSyntaxException e) {
+                        break;
+                    }
+                }
+                break;
+            case NOT_EMPTY:
+                return ConditionEvaluator::isNotEmpty;
+            case IS_EMPTY:
+                return ConditionEvaluator::isEmpty;
+        }
+        return fieldValue -> evaluateCondition(fieldValue, operator, expectedValue);
+    }
+
     /**
      * Core condition evaluation logic
      */
-    private static boolean evaluateCondition(Object fieldValue, Operator operator, Object expectedValue) {
+    static boolean evaluateCondition(Object fieldValue, Operator operator, Object expectedValue) {
         try {
             switch (operator) {
                 case EQUALS:
@@ -310,5 +573,12 @@ public class ConditionEvaluator {
         public boolean evaluate(Map<String, Object> data) {
             return ConditionEvaluator.evaluate(this, data);
         }
+
+        /**
+         * @see ConditionEvaluator#compile(ConditionRequest)
+         */
+        public Predicate<Map<String, Object>> compile() {
+            return ConditionEvaluator.compile(this);
+        }
     }
 }
\ No newline at end of file
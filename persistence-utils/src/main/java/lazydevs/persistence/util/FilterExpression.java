@@ -0,0 +1,210 @@
+package lazydevs.persistence.util;
+
+import lazydevs.mapper.utils.engine.TemplateCache;
+import lazydevs.persistence.util.ConditionEvaluator.Condition;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * The condition inside the brackets of a {@link ParseUtils} path ({@code users[role:EQUALS:admin AND age:GREATER_THAN:30]}),
+ * parsed once into a tree of AND/OR nodes ({@link AdaptiveJunction}s) over conditions whose operator, literal value and
+ * field path are already resolved. Filtering a list then costs one parse (cached by {@link #compile(String)}) instead of one per element.
+ * <p>
+ * Precedence is parentheses, then AND, then OR, as documented on {@link ParseUtils}. A condition that cannot be
+ * parsed evaluates to false, for every element.
+ *
+ * @author Abhijeet Rai
+ */
+@Slf4j
+public final class FilterExpression implements Predicate<Map<String, Object>> {
+    private static final TemplateCache<FilterExpression> CACHE = new TemplateCache<>(TemplateCache.DEFAULT_MAX_SIZE, 4 * 1024);
+    private static final String CONTAINS_KEY = "containsKey=";
+
+    @Getter
+    private final String source;
+    private final Predicate<Map<String, Object>> root;
+
+    private FilterExpression(String source) {
+        this.source = source;
+        this.root = parse(source);
+    }
+
+    public static FilterExpression compile(@NonNull String source) {
+        return CACHE.get(source, FilterExpression::new);
+    }
+
+    @Override
+    public boolean test(Map<String, Object> item) {
+        return item != null && root.test(item);
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    private static Predicate<Map<String, Object>> parse(String source) {
+        if (source.trim().isEmpty()) {
+            return item -> false;
+        }
+        String conditions = source.trim();
+        // Handle legacy containsKey format for backward compatibility
+        if (conditions.startsWith(CONTAINS_KEY)) {
+            return containsKey(conditions);
+        }
+        try {
+            return parseOrExpression(conditions);
+        } catch (Exception e) {
+            log.error("Error parsing conditions: {}", conditions, e);
+            return item -> false;
+        }
+    }
+
+    // OR has the lowest precedence
+    private static Predicate<Map<String, Object>> parseOrExpression(String expression) {
+        List<String> orParts = splitByOperatorRespectingParentheses(expression, " OR ");
+        if (orParts.size() == 1) {
+            return parseAndExpression(expression);
+        }
+        List<Predicate<Map<String, Object>>> operands = new ArrayList<>(orParts.size());
+        for (String orPart : orParts) {
+            operands.add(parseAndExpression(orPart.trim()));
+        }
+        return new AdaptiveJunction(false, operands);
+    }
+
+    private static Predicate<Map<String, Object>> parseAndExpression(String expression) {
+        List<String> andParts = splitByOperatorRespectingParentheses(expression, " AND ");
+        if (andParts.size() == 1) {
+            return parsePrimaryExpression(expression);
+        }
+        List<Predicate<Map<String, Object>>> operands = new ArrayList<>(andParts.size());
+        for (String andPart : andParts) {
+            operands.add(parsePrimaryExpression(andPart.trim()));
+        }
+        return new AdaptiveJunction(true, operands);
+    }
+
+    // parentheses or a single condition
+    private static Predicate<Map<String, Object>> parsePrimaryExpression(String expression) {
+        expression = expression.trim();
+        if (expression.startsWith("(") && expression.endsWith(")")) {
+            return parseOrExpression(expression.substring(1, expression.length() - 1).trim());
+        }
+        return parseCondition(expression);
+    }
+
+    // splits at the operator only outside parentheses
+    private static List<String> splitByOperatorRespectingParentheses(String expression, String operator) {
+        List<String> parts = new ArrayList<>();
+        int parenthesesLevel = 0;
+        int start = 0;
+        for (int i = 0; i <= expression.length() - operator.length(); i++) {
+            char c = expression.charAt(i);
+            if (c == '(') {
+                parenthesesLevel++;
+            } else if (c == ')') {
+                parenthesesLevel--;
+            } else if (parenthesesLevel == 0 && expression.startsWith(operator, i)) {
+                parts.add(expression.substring(start, i));
+                start = i + operator.length();
+                i += operator.length() - 1;
+            }
+        }
+        parts.add(expression.substring(start));
+        return parts;
+    }
+
+    /**
+     * field:OPERATOR:value, field?method:OPERATOR:value or containsKey=field
+     */
+    private static Predicate<Map<String, Object>> parseCondition(String conditionStr) {
+        if (conditionStr.trim().isEmpty()) {
+            return item -> false;
+        }
+        String condition = conditionStr.trim();
+        if (condition.startsWith(CONTAINS_KEY)) {
+            return containsKey(condition);
+        }
+        boolean isMethodCall = condition.contains("?");
+        String[] parts = condition.split(":", 3);
+        if (parts.length < (isMethodCall ? 3 : 2)) {
+            log.debug("Invalid condition format: {}", condition);
+            return item -> false;
+        }
+        String field = parts[0].trim();
+        String valueStr = parts.length > 2 ? parts[2].trim() : null;
+        Condition conditionObj = ParseUtils.createConditionFromParts(field, parts[1].trim(), valueStr);
+        if (conditionObj == null) {
+            log.debug("Could not create condition from: {}", condition);
+            return item -> false;
+        }
+        return isMethodCall ? new MethodCallCondition(condition, field.split("\\?"), conditionObj) : new FieldCondition(condition, conditionObj);
+    }
+
+    private static Predicate<Map<String, Object>> containsKey(String condition) {
+        String key = condition.substring(CONTAINS_KEY.length()).replace("'", "").replace("\"", "");
+        return item -> item.containsKey(key);
+    }
+
+    private static final class FieldCondition implements Predicate<Map<String, Object>> {
+        private final String source;
+        private final PathExpression path;
+        private final Predicate<Object> test;
+
+        FieldCondition(String source, Condition condition) {
+            this.source = source;
+            this.path = PathExpression.compile(condition.getField());
+            this.test = ConditionEvaluator.compile(condition.getOperator(), condition.getValue());
+        }
+
+        @Override
+        public boolean test(Map<String, Object> item) {
+            try {
+                return test.test(path.get(item));
+            } catch (Exception e) {
+                log.error("Error evaluating condition: {}", source, e);
+                return false;
+            }
+        }
+    }
+
+    // settings?cache?enabled:EQUALS:true, every segment after the first is a map key or a no-arg method
+    private static final class MethodCallCondition implements Predicate<Map<String, Object>> {
+        private final String source;
+        private final String[] tokens;
+        private final Predicate<Object> test;
+
+        MethodCallCondition(String source, String[] tokens, Condition condition) {
+            this.source = source;
+            this.tokens = tokens;
+            for (int i = 0; i < tokens.length; i++) {
+                tokens[i] = tokens[i].isEmpty() ? null : tokens[i].trim();
+            }
+            this.test = ConditionEvaluator.compile(condition.getOperator(), condition.getValue());
+        }
+
+        @Override
+        public boolean test(Map<String, Object> item) {
+            try {
+                Object resolved = item;
+                for (String token : tokens) {
+                    if (resolved == null || token == null) {
+                        return false;
+                    }
+                    resolved = resolved instanceof Map ? ((Map<?, ?>) resolved).get(token) : ParseUtils.callMethod(resolved, token);
+                }
+                return resolved != null && test.test(resolved);
+            } catch (Exception e) {
+                log.error("Error evaluating method call condition: {}", source, e);
+                return false;
+            }
+        }
+    }
+}
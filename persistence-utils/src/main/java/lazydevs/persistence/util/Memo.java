@@ -0,0 +1,42 @@
+package lazydevs.persistence.util;
+
+import lombok.NonNull;
+
+import java.util.function.Function;
+
+/**
+ * Holds the value computed for the last key it was asked for, and computes it again once asked for another key. Keys
+ * are compared by identity, so a key changed in place is not noticed; meant for a config object that is replaced as a
+ * whole, like a condition compiled once for all the rows it is tested on.
+ * <p>
+ * Can be shared between threads: the key and its value are replaced together, at worst a value is computed twice.
+ *
+ * @author Abhijeet Rai
+ */
+public final class Memo<K, V> {
+    private final Function<K, V> function;
+    private volatile Entry<K, V> last;
+
+    private static final class Entry<K, V> {
+        private final K key;
+        private final V value;
+
+        Entry(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+
+    public Memo(@NonNull Function<K, V> function) {
+        this.function = function;
+    }
+
+    public V get(K key) {
+        Entry<K, V> entry = last;
+        if (null == entry || entry.key != key) {
+            entry = new Entry<>(key, function.apply(key));
+            last = entry;
+        }
+        return entry.value;
+    }
+}
@@ -0,0 +1,175 @@
+package lazydevs.persistence.util;
+
+import lazydevs.mapper.utils.engine.TemplateCache;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link ParseUtils#get(Map, String)} path, tokenised once into a chain of accessors, so evaluating it against a
+ * row does no string work. {@link #compile(String)} caches the compiled expressions by path.
+ * <p>
+ * The syntax and the results are exactly those of {@link ParseUtils}.
+ *
+ * @author Abhijeet Rai
+ */
+@Slf4j
+public final class PathExpression {
+    private static final TemplateCache<PathExpression> CACHE = new TemplateCache<>(TemplateCache.DEFAULT_MAX_SIZE, 4 * 1024);
+
+    @Getter
+    private final String path;
+    private final Step[] steps;
+
+    private PathExpression(String path) {
+        this.path = path;
+        String[] tokens = path.split("\\.");
+        this.steps = new Step[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            steps[i] = compileStep(tokens[i], i == tokens.length - 1);
+        }
+    }
+
+    public static PathExpression compile(@NonNull String path) {
+        return CACHE.get(path, PathExpression::new);
+    }
+
+    public Object get(Map<String, Object> map) {
+        if (map == null) return null;
+        Object value = map;
+        for (Step step : steps) {
+            if (!(value instanceof Map) && !(value instanceof List)) {
+                return null;
+            }
+            value = step.apply(value);
+        }
+        return value;
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+
+    private static Step compileStep(String token, boolean isLastToken) {
+        if (token.contains("[") && token.endsWith("]")) {
+            String arrayKey = token.substring(0, token.indexOf("["));
+            String indexStr = token.substring(token.indexOf("[") + 1, token.indexOf("]"));
+            if (indexStr.matches("-?\\d+")) {
+                int index;
+                try {
+                    index = Integer.parseInt(indexStr);
+                } catch (NumberFormatException e) {// too large for an index, never in range
+                    index = -1;
+                }
+                return new IndexStep(arrayKey, index);
+            }
+            return new FilterStep(arrayKey, FilterExpression.compile(indexStr), isLastToken);
+        }
+        return new FieldStep(token);
+    }
+
+    private interface Step {
+        /**
+         * @param value a Map or a List
+         * @return the value to continue with, null ends the evaluation
+         */
+        Object apply(Object value);
+    }
+
+    private static final class FieldStep implements Step {
+        private final String key;
+
+        FieldStep(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public Object apply(Object value) {
+            if (value instanceof Map) {
+                return ((Map<?, ?>) value).get(key);
+            }
+            // a filtered list followed by a field: the field of the first match
+            List<?> list = (List<?>) value;
+            if (!list.isEmpty() && list.get(0) instanceof Map) {
+                return ((Map<?, ?>) list.get(0)).get(key);
+            }
+            return value;
+        }
+    }
+
+    private abstract static class ArrayStep implements Step {
+        private final String arrayKey;
+
+        ArrayStep(String arrayKey) {
+            this.arrayKey = arrayKey;
+        }
+
+        List<Map<String, Object>> list(Object value) {
+            Object listObj;
+            if (value instanceof Map) {
+                listObj = ((Map<?, ?>) value).get(arrayKey);
+            } else if (arrayKey.isEmpty()) {
+                // Case: someList[condition] where value is already the list
+                listObj = value;
+            } else {
+                return null;
+            }
+            return listObj instanceof List ? (List<Map<String, Object>>) listObj : null;
+        }
+    }
+
+    private static final class IndexStep extends ArrayStep {
+        private final int index;
+
+        IndexStep(String arrayKey, int index) {
+            super(arrayKey);
+            this.index = index;
+        }
+
+        @Override
+        public Object apply(Object value) {
+            List<Map<String, Object>> list = list(value);
+            if (list == null || index < 0 || index >= list.size()) {
+                return null;
+            }
+            return list.get(index);
+        }
+    }
+
+    private static final class FilterStep extends ArrayStep {
+        private final FilterExpression predicate;
+        private final boolean isLastToken;
+
+        FilterStep(String arrayKey, FilterExpression predicate, boolean isLastToken) {
+            super(arrayKey);
+            this.predicate = predicate;
+            this.isLastToken = isLastToken;
+        }
+
+        @Override
+        public Object apply(Object value) {
+            List<Map<String, Object>> list = list(value);
+            if (list == null) {
+                return null;
+            }
+            try {
+                List<Map<String, Object>> filteredList = new ArrayList<>();
+                for (Map<String, Object> e : list) {
+                    if (e != null && predicate.test(e)) {
+                        filteredList.add(e);
+                    }
+                }
+                // If there are more tokens, the first match is used for continued navigation
+                return !isLastToken && filteredList.isEmpty() ? null : filteredList;
+            } catch (Exception e) {
+                log.error("Error evaluating conditions: {}", predicate, e);
+                return null;
+            }
+        }
+    }
+}
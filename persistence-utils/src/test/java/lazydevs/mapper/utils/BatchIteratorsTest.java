@@ -0,0 +1,183 @@
+package lazydevs.mapper.utils;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Abhijeet Rai
+ */
+@Test
+public class BatchIteratorsTest {
+
+    private static class ClosableBatchIterator extends DefaultBatchIterator<Integer> {
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private int batchesRead;
+
+        ClosableBatchIterator(int count, int batchSize) {
+            super(IntStream.range(0, count).boxed().collect(Collectors.toList()), batchSize);
+        }
+
+        @Override
+        public List<Integer> next() {
+            batchesRead++;
+            return super.next();
+        }
+
+        @Override
+        public void close() {
+            closed.set(true);
+        }
+    }
+
+    private static List<Integer> range(int count) {
+        return IntStream.range(0, count).boxed().collect(Collectors.toList());
+    }
+
+    public void testStream() {
+        ClosableBatchIterator batchIterator = new ClosableBatchIterator(25, 4);
+        try (Stream<Integer> stream = BatchIterators.stream(batchIterator)) {
+            assertEquals(stream.collect(Collectors.toList()), range(25));
+        }
+        assertTrue(batchIterator.closed.get());
+    }
+
+    public void testParallelStream() {
+        ClosableBatchIterator batchIterator = new ClosableBatchIterator(10_000, 100);
+        try (Stream<Integer> stream = BatchIterators.stream(batchIterator).parallel()) {
+            assertEquals(stream.map(i -> i * 2).collect(Collectors.toList()), range(10_000).stream().map(i -> i * 2).collect(Collectors.toList()));
+        }
+        assertTrue(batchIterator.closed.get());
+    }
+
+    public void testStreamReadsOnlyWhatIsConsumed() {
+        ClosableBatchIterator batchIterator = new ClosableBatchIterator(1_000, 10);
+        try (Stream<Integer> stream = BatchIterators.stream(batchIterator)) {
+            assertEquals(stream.limit(15).count(), 15);
+        }
+        assertEquals(batchIterator.batchesRead, 2);
+    }
+
+    public void testFromStreamAndBack() {
+        AtomicBoolean closed = new AtomicBoolean();
+        BatchIterator<Integer> batchIterator = BatchIterators.fromStream(range(7).stream().onClose(() -> closed.set(true)), 3);
+        try (Stream<List<Integer>> batches = BatchIterators.batchStream(batchIterator)) {
+            assertEquals(batches.collect(Collectors.toList()), Arrays.asList(Arrays.asList(0, 1, 2), Arrays.asList(3, 4, 5), Arrays.asList(6)));
+        }
+        assertTrue(closed.get());
+    }
+
+    public void testPublisherHonoursDemand() {
+        ClosableBatchIterator batchIterator = new ClosableBatchIterator(9, 2);
+        List<List<Integer>> received = new ArrayList<>();
+        AtomicReference<Flow.Subscription> subscription = new AtomicReference<>();
+        AtomicBoolean completed = new AtomicBoolean();
+        BatchIterators.publisher(batchIterator).subscribe(new Flow.Subscriber<List<Integer>>() {
+            @Override
+            public void onSubscribe(Flow.Subscription s) {
+                subscription.set(s);
+            }
+
+            @Override
+            public void onNext(List<Integer> item) {
+                received.add(item);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                throw new AssertionError(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                completed.set(true);
+            }
+        });
+        assertEquals(batchIterator.batchesRead, 0);
+        subscription.get().request(2);
+        assertEquals(received, Arrays.asList(Arrays.asList(0, 1), Arrays.asList(2, 3)));
+        assertEquals(batchIterator.batchesRead, 2);
+        subscription.get().request(Long.MAX_VALUE);
+        assertEquals(received.size(), 5);
+        assertTrue(completed.get());
+        assertTrue(batchIterator.closed.get());
+    }
+
+    public void testPublisherToBatchIterator() {
+        ClosableBatchIterator original = new ClosableBatchIterator(10, 3);
+        List<Integer> all = new ArrayList<>();
+        try (BatchIterator<Integer> batchIterator = BatchIterators.fromPublisher(BatchIterators.publisher(original), 3, 1)) {
+            assertEquals(original.batchesRead, 1);
+            while (batchIterator.hasNext()) {
+                all.addAll(batchIterator.next());
+            }
+        }
+        assertEquals(all, range(10));
+        assertTrue(original.closed.get());
+    }
+
+    public void testCloseCancels() {
+        ClosableBatchIterator original = new ClosableBatchIterator(100, 1);
+        BatchIterator<Integer> batchIterator = BatchIterators.fromPublisher(BatchIterators.publisher(original), 1, 2);
+        assertEquals(batchIterator.next(), Arrays.asList(0));
+        batchIterator.close();
+        assertTrue(original.closed.get());
+        assertFalse(batchIterator.hasNext());
+        assertEquals(original.batchesRead, 3);
+    }
+
+    public void testOnlyOneSubscriber() {
+        Flow.Publisher<List<Integer>> publisher = BatchIterators.publisher(new ClosableBatchIterator(1, 1));
+        BatchIterators.fromPublisher(publisher, 1, 1);
+        AtomicReference<Throwable> error = new AtomicReference<>();
+        publisher.subscribe(new Flow.Subscriber<List<Integer>>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+            }
+
+            @Override
+            public void onNext(List<Integer> item) {
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                error.set(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+        assertTrue(error.get() instanceof IllegalStateException);
+    }
+
+    public void testErrorIsThrownByNext() {
+        BatchIterator<Integer> failing = new ClosableBatchIterator(10, 2) {
+            @Override
+            public List<Integer> next() {
+                throw new IllegalStateException("broken");
+            }
+        };
+        BatchIterator<Integer> batchIterator = BatchIterators.fromPublisher(BatchIterators.publisher(failing), 2, 1);
+        assertTrue(batchIterator.hasNext());
+        try {
+            batchIterator.next();
+            throw new AssertionError("The error should have been thrown.");
+        } catch (RuntimeException e) {
+            assertEquals(e.getCause().getMessage(), "broken");
+        }
+        assertFalse(batchIterator.hasNext());
+    }
+}
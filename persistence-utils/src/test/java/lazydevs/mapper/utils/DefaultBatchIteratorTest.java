@@ -3,6 +3,7 @@ package lazydevs.mapper.utils;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 
@@ -22,4 +23,17 @@ public class DefaultBatchIteratorTest {
         Assert.assertEquals(batchNumber, 4);
     }
 
+    @Test
+    public void testNextIntoReusedList(){
+        BatchIterator<Integer> it = new DefaultBatchIterator<>(Arrays.asList(1, 2, 3, 4, 5), 2);
+        List<Integer> reuse = new ArrayList<>(Arrays.asList(9, 9, 9));
+        List<List<Integer>> batches = new ArrayList<>();
+        while(it.hasNext()){
+            List<Integer> list = it.next(reuse);
+            Assert.assertSame(list, reuse);
+            batches.add(new ArrayList<>(list));
+        }
+        Assert.assertEquals(batches, Arrays.asList(Arrays.asList(1, 2), Arrays.asList(3, 4), Arrays.asList(5)));
+    }
+
 }
\ No newline at end of file
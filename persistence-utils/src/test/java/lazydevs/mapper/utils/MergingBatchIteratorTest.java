@@ -0,0 +1,89 @@
+package lazydevs.mapper.utils;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * @author Abhijeet Rai
+ */
+@Test
+public class MergingBatchIteratorTest {
+
+    private static class Partition extends DefaultBatchIterator<Integer> {
+        private final AtomicInteger closed;
+
+        Partition(int from, int to, AtomicInteger closed) {
+            super(IntStream.range(from, to).boxed().collect(Collectors.toList()), 10);
+            this.closed = closed;
+        }
+
+        @Override
+        public void close() {
+            closed.incrementAndGet();
+        }
+    }
+
+    public void testAllBatchesOfAllPartitions() {
+        AtomicInteger closed = new AtomicInteger();
+        List<BatchIterator<Integer>> partitions = Arrays.asList(new Partition(0, 95, closed), new Partition(95, 100, closed), new Partition(100, 100, closed), new Partition(100, 250, closed));
+        List<Integer> all = new ArrayList<>();
+        try (MergingBatchIterator<Integer> iterator = new MergingBatchIterator<>(partitions, 2)) {
+            while (iterator.hasNext()) {
+                all.addAll(iterator.next());
+            }
+            assertFalse(iterator.hasNext());
+        }
+        Collections.sort(all);
+        assertEquals(all, IntStream.range(0, 250).boxed().collect(Collectors.toList()));
+        assertEquals(closed.get(), 4);
+    }
+
+    public void testFailureStopsAllPartitions() {
+        AtomicInteger closed = new AtomicInteger();
+        Partition failing = new Partition(0, 100, closed) {
+            @Override
+            public List<Integer> next() {
+                throw new IllegalStateException("broken");
+            }
+        };
+        MergingBatchIterator<Integer> iterator = new MergingBatchIterator<>(Arrays.asList(new Partition(0, 100_000, closed), failing), 1);
+        try {
+            while (iterator.hasNext()) {
+                iterator.next();
+            }
+            fail("The failure of the partition should have been thrown.");
+        } catch (RuntimeException e) {
+            assertEquals(e.getCause().getMessage(), "broken");
+        }
+        assertEquals(closed.get(), 2);
+        assertFalse(iterator.hasNext());
+    }
+
+    public void testCloseBeforeTheEnd() {
+        AtomicInteger closed = new AtomicInteger();
+        MergingBatchIterator<Integer> iterator = new MergingBatchIterator<>(Arrays.asList(new Partition(0, 100_000, closed), new Partition(0, 100_000, closed)));
+        assertTrue(iterator.hasNext());
+        assertEquals(iterator.next().size(), 10);
+        iterator.close();
+        assertEquals(closed.get(), 2);
+        assertFalse(iterator.hasNext());
+    }
+
+    public void testNoPartitions() {
+        try (MergingBatchIterator<Integer> iterator = new MergingBatchIterator<>(Collections.emptyList())) {
+            assertFalse(iterator.hasNext());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package lazydevs.mapper.utils;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+/**
+ * @author Abhijeet Rai
+ */
+@Test
+public class PrefetchingBatchIteratorTest {
+
+    // counts the batches fetched, fails on the batch at failAt
+    private static class CountingBatchIterator extends DefaultBatchIterator<Integer> {
+        private final AtomicInteger fetched = new AtomicInteger();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private final int failAt;
+
+        CountingBatchIterator(int count, int batchSize, int failAt) {
+            super(IntStream.range(0, count).boxed().collect(Collectors.toList()), batchSize);
+            this.failAt = failAt;
+        }
+
+        @Override
+        public List<Integer> next() {
+            if (fetched.incrementAndGet() == failAt) {
+                throw new IllegalStateException("failed at " + failAt);
+            }
+            return super.next();
+        }
+
+        @Override
+        public void close() {
+            closed.set(true);
+            super.close();
+        }
+    }
+
+    public void testSameBatchesInOrder() {
+        List<List<Integer>> expected = new ArrayList<>();
+        new DefaultBatchIterator<>(IntStream.range(0, 10).boxed().collect(Collectors.toList()), 3).forEachRemaining(expected::add);
+        List<List<Integer>> actual = new ArrayList<>();
+        CountingBatchIterator original = new CountingBatchIterator(10, 3, -1);
+        try (PrefetchingBatchIterator<Integer> iterator = new PrefetchingBatchIterator<>(original)) {
+            iterator.forEachRemaining(actual::add);
+            assertFalse(iterator.hasNext());
+        }
+        assertEquals(actual, expected);
+        assertEquals(actual.get(3), Arrays.asList(9));
+        assertTrue(original.closed.get());
+    }
+
+    public void testReadsAheadAtMostTheGivenBatches() throws InterruptedException {
+        CountingBatchIterator original = new CountingBatchIterator(100, 1, -1);
+        try (PrefetchingBatchIterator<Integer> iterator = new PrefetchingBatchIterator<>(original, 2)) {
+            waitFor(() -> original.fetched.get() >= 3);
+            TimeUnit.MILLISECONDS.sleep(100);
+            // two in the queue and one waiting for room
+            assertEquals(original.fetched.get(), 3);
+            assertEquals(iterator.next(), Arrays.asList(0));
+            waitFor(() -> original.fetched.get() >= 4);
+        }
+        assertTrue(original.closed.get());
+    }
+
+    public void testErrorIsThrownByNext() {
+        CountingBatchIterator original = new CountingBatchIterator(10, 2, 3);
+        Iterator<List<Integer>> iterator = new PrefetchingBatchIterator<>(original);
+        assertEquals(iterator.next(), Arrays.asList(0, 1));
+        assertEquals(iterator.next(), Arrays.asList(2, 3));
+        assertTrue(iterator.hasNext());
+        try {
+            iterator.next();
+            fail("The failure of the original iterator should have been thrown.");
+        } catch (RuntimeException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+            assertEquals(e.getCause().getMessage(), "failed at 3");
+        }
+        assertFalse(iterator.hasNext());
+    }
+
+    public void testCloseStopsReading() {
+        CountingBatchIterator original = new CountingBatchIterator(1000, 1, -1);
+        PrefetchingBatchIterator<Integer> iterator = new PrefetchingBatchIterator<>(original, 1);
+        iterator.next();
+        iterator.close();
+        int fetched = original.fetched.get();
+        assertTrue(original.closed.get());
+        assertFalse(iterator.hasNext());
+        assertTrue(fetched < 1000);
+        assertEquals(original.fetched.get(), fetched);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testBatchesAheadMustBePositive() {
+        new PrefetchingBatchIterator<>(new CountingBatchIterator(1, 1, -1), 0);
+    }
+
+    private static void waitFor(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                fail("Timed out");
+            }
+            TimeUnit.MILLISECONDS.sleep(5);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package lazydevs.mapper.utils;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Abhijeet Rai
+ */
+@Test
+public class RowTest {
+    private final Row.Schema schema = Row.Schema.of("id", "name", "city");
+
+    private Row row() {
+        return new Row(schema, new Object[]{1, "Abhijeet", null});
+    }
+
+    private Map<String, Object> map() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("id", 1);
+        map.put("name", "Abhijeet");
+        map.put("city", null);
+        return map;
+    }
+
+    public void testBehavesAsALinkedHashMap() {
+        Row row = row();
+        Map<String, Object> map = map();
+        assertEquals(row, map);
+        assertEquals(map, row);
+        assertEquals(row.hashCode(), map.hashCode());
+        assertEquals(row.toString(), map.toString());
+        assertTrue(row.containsKey("city"));
+        assertNull(row.get("missing"));
+
+        for (Map<String, Object> m : Arrays.asList(row, map)) {
+            m.put("name", "changed");
+            m.put("extra", true);
+            m.remove("id");
+            m.put("id", 2);
+        }
+        assertEquals(new ArrayList<>(row.entrySet()), new ArrayList<>(map.entrySet()));
+        assertEquals(new ArrayList<>(row.keySet()), Arrays.asList("name", "city", "extra", "id"));
+        assertEquals(row.size(), 4);
+
+        row.clear();
+        assertTrue(row.isEmpty());
+        assertFalse(row.containsKey("name"));
+    }
+
+    public void testRowsShareTheSchema() {
+        Row first = row();
+        Row second = new Row(schema);
+        second.putAll(first);
+        assertSame(second.getSchema(), first.getSchema());
+        assertEquals(second, first);
+    }
+
+    public void testRepeatedColumnKeepsTheLastValue() {
+        Row.Schema repeated = Row.Schema.of("id", "name", "id");
+        assertEquals(repeated.size(), 2);
+        assertEquals(repeated.getColumnCount(), 3);
+        Row row = new Row(repeated);
+        row.setColumn(0, 1);
+        row.setColumn(1, "Abhijeet");
+        row.setColumn(2, 2);
+        assertEquals(row.get("id"), 2);
+        assertEquals(new ArrayList<>(row.keySet()), Arrays.asList("id", "name"));
+    }
+
+    public void testRetainColumns() {
+        Row row = new Row(schema);
+        row.setColumn(0, 1);
+        row.retainColumns(1);
+        assertEquals(row.size(), 1);
+        assertEquals(new ArrayList<>(row.keySet()), Arrays.asList("id"));
+    }
+
+    public void testIteratorRemoveAndSetValue() {
+        Row row = row();
+        row.put("extra", true);
+        for (Iterator<Map.Entry<String, Object>> it = row.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<String, Object> entry = it.next();
+            if (entry.getKey().equals("id") || entry.getKey().equals("extra")) {
+                it.remove();
+            } else {
+                entry.setValue(entry.getKey());
+            }
+        }
+        Map<String, Object> expected = new LinkedHashMap<>();
+        expected.put("name", "name");
+        expected.put("city", "city");
+        assertEquals(row, expected);
+        assertEquals(row.size(), 2);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testValuesMustMatchTheSchema() {
+        new Row(schema, new Object[2]);
+    }
+}
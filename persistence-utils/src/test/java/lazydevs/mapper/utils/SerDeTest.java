@@ -1,5 +1,6 @@
 package lazydevs.mapper.utils;
 
+import com.fasterxml.jackson.databind.DeserializationFeature;
 import lazydevs.mapper.utils.file.FileUtils;
 import lombok.AllArgsConstructor;
 import lombok.EqualsAndHashCode;
@@ -8,6 +9,8 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -17,6 +20,8 @@ import java.util.Map;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.expectThrows;
 
 /**
  * @author Abhijeet Rai
@@ -36,6 +41,94 @@ public class SerDeTest {
         testSerDe(SerDe.XML);
     }
 
+    public void testStreamingJson(){
+        testStreaming(SerDe.JSON);
+    }
+
+    public void testStreamingYaml(){
+        testStreaming(SerDe.YAML);
+    }
+
+    public void testStreamingXml(){
+        testStreaming(SerDe.XML);
+    }
+
+    public void testStreamingClosesTheStreamOfANonArray(){
+        boolean[] closed = {false};
+        ByteArrayInputStream is = new ByteArrayInputStream("{\"id\": 1}".getBytes()) {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        IllegalArgumentException e = expectThrows(IllegalArgumentException.class, () -> SerDe.JSON.deserializeToBatchIteratorOfMap(is, 3));
+        assertEquals(e.getMessage(), "Expected the document to start with START_ARRAY but found START_OBJECT");
+        assertTrue(closed[0]);
+    }
+
+    public void testSmile(){
+        testBinary(SerDe.SMILE);
+    }
+
+    public void testCbor(){
+        testBinary(SerDe.CBOR);
+    }
+
+    public void testMessagePack(){
+        testBinary(SerDe.MESSAGE_PACK);
+    }
+
+    public void testReconfigure(){
+        String json = "{\"a\" : \"a1\", \"b\" : \"b1\", \"d\" : \"unknown\"}";
+        expectThrows(RuntimeException.class, () -> SerDe.JSON.deserialize(json, ABC.class));
+        SerDe.JSON.reconfigure(mapper -> mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES));
+        try {
+            assertEquals(SerDe.JSON.deserialize(json, ABC.class), new ABC("a1", "b1", null));
+        } finally {
+            SerDe.JSON.reconfigure(mapper -> mapper.enable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES));
+        }
+        expectThrows(RuntimeException.class, () -> SerDe.JSON.deserialize(json, ABC.class));
+    }
+
+    private void testBinary(SerDe serDe){
+        assertTrue(serDe.isBinary());
+        ABC abc = new ABC("a1", "b1", Arrays.asList("c1", "c2", "c3", "c4"));
+        byte[] bytes = serDe.serializeToBytes(abc);
+        assertTrue(bytes.length < SerDe.JSON.serializeToBytes(abc).length);
+        assertEquals(serDe.deserialize(bytes, ABC.class), abc);
+        assertEquals(serDe.fromMap(serDe.deserializeToMap(bytes), ABC.class), abc);
+        testSerDe(serDe);
+        testDeserializeToMap(serDe);
+        testDeserializeToListOfMap(serDe);
+        testStreaming(serDe);
+    }
+
+    private void testStreaming(SerDe serDe){
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("id", "id-" + i);
+            row.put("name", "name-" + i);
+            rows.add(row);
+        }
+        ByteArrayOutputStream os = new ByteArrayOutputStream();
+        serDe.serialize(new DefaultBatchIterator<>(rows, 3), os);
+        assertEquals(serDe.deserializeToListOfMap(new ByteArrayInputStream(os.toByteArray())), rows);
+
+        List<Map<String, Object>> read = new ArrayList<>();
+        int batches = 0;
+        try (BatchIterator<Map<String, Object>> it = serDe.deserializeToBatchIteratorOfMap(new ByteArrayInputStream(os.toByteArray()), 3)) {
+            while (it.hasNext()) {
+                List<Map<String, Object>> batch = it.next();
+                assertTrue(batch.size() <= 3);
+                read.addAll(batch);
+                batches++;
+            }
+        }
+        assertEquals(batches, 3);
+        assertEquals(read, rows);
+    }
+
     private void testSerDe(SerDe serDe){
         ABC abc = new ABC("a1", "b1", Arrays.asList("c1", "c2", "c3", "c4"));
         System.out.println(serDe.serialize(abc));
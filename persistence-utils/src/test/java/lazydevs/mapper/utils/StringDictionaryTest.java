@@ -0,0 +1,85 @@
+package lazydevs.mapper.utils;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * @author Abhijeet Rai
+ */
+@Test
+public class StringDictionaryTest {
+
+    private Map<String, Object> row(int id, String status) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", String.valueOf(id));
+        row.put("status", new String(status.toCharArray()));// a distinct instance per row, as a reader would create
+        row.put("count", id);
+        return row;
+    }
+
+    public void testRepeatedValuesAreShared() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            rows.add(row(i, i % 2 == 0 ? "ACTIVE" : "INACTIVE"));
+        }
+        List<Map<String, Object>> expected = new ArrayList<>();
+        for (Map<String, Object> row : rows) {
+            expected.add(new LinkedHashMap<>(row));
+        }
+        StringDictionary dictionary = new StringDictionary();
+        assertSame(dictionary.intern(rows), rows);
+        assertEquals(rows, expected);
+        assertSame(rows.get(2).get("status"), rows.get(0).get("status"));
+        assertSame(rows.get(3).get("status"), rows.get(1).get("status"));
+        assertEquals(rows.get(5).get("count"), 5);
+    }
+
+    public void testHighCardinalityColumnIsLeftAlone() {
+        StringDictionary dictionary = new StringDictionary(3, StringDictionary.DEFAULT_MAX_LENGTH);
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            rows.add(row(i, "ACTIVE"));
+        }
+        dictionary.intern(rows);
+        assertFalse(dictionary.isInterned("id"));
+        assertTrue(dictionary.isInterned("status"));
+        String id = new String("1".toCharArray());
+        assertSame(dictionary.intern("id", id), id);
+        assertSame(rows.get(4).get("status"), rows.get(0).get("status"));
+    }
+
+    public void testLongValuesAreNotInterned() {
+        StringDictionary dictionary = new StringDictionary(10, 3);
+        String first = dictionary.intern("code", new String("LONG".toCharArray()));
+        assertNotSame(dictionary.intern("code", new String("LONG".toCharArray())), first);
+        first = dictionary.intern("code", new String("IN".toCharArray()));
+        assertSame(dictionary.intern("code", new String("IN".toCharArray())), first);
+    }
+
+    public void testBatchIterator() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            rows.add(row(i, "IN"));
+        }
+        List<Object> statuses = new ArrayList<>();
+        try (InterningBatchIterator<Map<String, Object>> iterator = new InterningBatchIterator<>(new DefaultBatchIterator<>(rows, 4))) {
+            while (iterator.hasNext()) {
+                iterator.next().forEach(row -> statuses.add(row.get("status")));
+            }
+        }
+        assertEquals(statuses, Arrays.asList("IN", "IN", "IN", "IN", "IN", "IN"));
+        // shared across batches as well
+        assertSame(statuses.get(5), statuses.get(0));
+    }
+}
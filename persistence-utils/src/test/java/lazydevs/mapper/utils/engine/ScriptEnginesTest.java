@@ -7,13 +7,22 @@ import lombok.ToString;
 import org.testng.annotations.Test;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static lazydevs.mapper.utils.engine.ScriptEngines.GROOVY;
 import static lazydevs.mapper.utils.engine.ScriptEngines.JAVASCRIPT;
 import static lazydevs.mapper.utils.engine.TemplateEngineTest.getMap;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 
 public class ScriptEnginesTest {
 
@@ -57,6 +66,51 @@ public class ScriptEnginesTest {
         assertNull(JAVASCRIPT.invokeFunction("printA"));
     }
 
+    @Test
+    public void testGroovyFromManyThreads() throws Exception {
+        GROOVY.loadScript("def pooled(x) { return prefix + x }");
+        GROOVY.put("prefix", "p-");
+        ExecutorService executorService = Executors.newFixedThreadPool(4);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            String arg = String.valueOf(i);
+            futures.add(executorService.submit(() -> GROOVY.invokeFunction("pooled", arg)));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            assertEquals(futures.get(i).get(), "p-" + i);
+        }
+        executorService.shutdown();
+        assertEquals(GROOVY.eval("prefix + 'eval'"), "p-eval");
+    }
+
+    @Test
+    public void testPoolKeepsAtMostTheMaxContexts() throws Exception {
+        assertTrue(GROOVY.isAvailable());
+        GROOVY.loadScript("def together(latch) { latch.countDown(); latch.await(); return 'done' }");
+        // more callers than are kept, all in the engine at once
+        int callers = 2 * Runtime.getRuntime().availableProcessors() + 4;
+        CountDownLatch latch = new CountDownLatch(callers);
+        ExecutorService executorService = Executors.newFixedThreadPool(callers);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            futures.add(executorService.submit(() -> GROOVY.invokeFunction("together", latch)));
+        }
+        for (Future<Object> future : futures) {
+            assertEquals(future.get(30, TimeUnit.SECONDS), "done");
+        }
+        executorService.shutdown();
+        assertEquals(GROOVY.pooledContexts(), 2 * Runtime.getRuntime().availableProcessors());
+    }
+
+    @Test
+    public void testInvokeFunctionInOneContext(){
+        GROOVY.loadScriptFromFile(getClass().getClassLoader().getResource("script.groovy").getPath());
+        List<Object> results = GROOVY.invokeFunctionInOneContext("f4", Arrays.asList(getMap("a=a1,b=b1"), getMap("a=a2,b=b2")));
+        assertEquals(results.size(), 2);
+        assertEquals(((Map<String, Object>) results.get(1)).get("x"), "a2_x");
+        assertEquals(GROOVY.invokeFunctionInOneContext("f3", Arrays.asList("x", "y")), Arrays.asList("F3-x", "F3-y"));
+    }
+
     @Test
     public void testGroovy(){
         //ScriptEngines.GROOVY.getScriptEngine().put("a", "a1");
@@ -0,0 +1,54 @@
+package lazydevs.mapper.utils.engine;
+
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+public class TemplateCacheTest {
+
+    @Test
+    public void testHitMissAndEviction(){
+        TemplateCache<String> cache = new TemplateCache<>(2, 100);
+        AtomicInteger compilations = new AtomicInteger();
+        cache.get("a", s -> s + compilations.incrementAndGet());
+        cache.get("a", s -> s + compilations.incrementAndGet());
+        cache.get("b", s -> s + compilations.incrementAndGet());
+        cache.get("a", s -> s + compilations.incrementAndGet());
+        cache.get("c", s -> s + compilations.incrementAndGet());//evicts b, the least recently used
+        assertEquals(cache.get("a", s -> s + compilations.incrementAndGet()), "a1");
+        assertEquals(compilations.get(), 3);
+
+        TemplateCache.Stats stats = cache.getStats();
+        assertEquals(stats.getHitCount(), 3);
+        assertEquals(stats.getMissCount(), 3);
+        assertEquals(stats.getEvictionCount(), 1);
+        assertEquals(stats.getSize(), 2);
+    }
+
+    @Test
+    public void testTooLongTemplateIsNotCached(){
+        TemplateCache<String> cache = new TemplateCache<>(10, 3);
+        cache.get("abcd", s -> s);
+        cache.get("abcd", s -> s);
+        assertEquals(cache.size(), 0);
+        assertEquals(cache.getStats().getUncacheableCount(), 2);
+    }
+
+    @Test
+    public void testTemplateEngineReusesCompiledTemplate(){
+        TemplateEngine templateEngine = TemplateEngine.getInstance();
+        String template = "cache-test-${a}";
+        Map<String, Object> map = new HashMap<>();
+        map.put("a", "1");
+        assertEquals(templateEngine.generate(template, map), "cache-test-1");
+        Object compiled = templateEngine.getTemplateCache().get(template, s -> null);
+        map.put("a", "2");
+        assertEquals(templateEngine.generate(template, map), "cache-test-2");
+        assertSame(templateEngine.getTemplateCache().get(template, s -> null), compiled);
+    }
+}
@@ -0,0 +1,84 @@
+package lazydevs.mapper.utils.engine;
+
+import freemarker.template.Configuration;
+import freemarker.template.Template;
+import freemarker.template.Version;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.StringWriter;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the registered template engines on a typical row-transform template. Not a unit test, run it with
+ * <pre>
+ * mvn test-compile
+ * java -cp target/test-classes:target/classes:&lt;test classpath&gt; lazydevs.mapper.utils.engine.TemplateEngineBenchmark
+ * </pre>
+ * Engines contributed through {@link TemplateEngineProvider} can be added to the {@code engine} param.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemplateEngineBenchmark {
+
+    private static final String ROW_TEMPLATE = "{\"id\" : \"${id}\", \"name\" : \"${customer.name}\", \"country\" : \"${customer.country}\", \"amount\" : ${amount}}";
+
+    @Param({TemplateEngine.FREEMARKER, PlaceholderTemplateEngineProvider.NAME})
+    private String engine;
+
+    private String template;
+    private Map<String, Object> row;
+    private Template uncachedFreeMarker;
+
+    @Setup
+    public void setup() throws Exception {
+        template = TemplateEngine.withEngine(engine, ROW_TEMPLATE);
+        Map<String, Object> customer = new HashMap<>();
+        customer.put("name", "Abhijeet");
+        customer.put("country", "IN");
+        row = new HashMap<>();
+        row.put("id", "r-1");
+        row.put("amount", 1200);
+        row.put("customer", customer);
+        uncachedFreeMarker = new Template("", ROW_TEMPLATE, new Configuration(new Version(2, 3, 23)));
+    }
+
+    @Benchmark
+    public String renderToString() {
+        return TemplateEngine.getInstance().generate(template, row);
+    }
+
+    @Benchmark
+    public Map<String, Object> renderToMap() {
+        return TemplateEngine.getInstance().generateToMap(template, row);
+    }
+
+    // baseline: what every call used to cost, a parse plus a render
+    @Benchmark
+    public String freeMarkerParseAndRender() throws Exception {
+        StringWriter writer = new StringWriter();
+        new Template("", ROW_TEMPLATE, uncachedFreeMarker.getConfiguration()).process(row, writer);
+        return writer.toString();
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder().include(TemplateEngineBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -213,6 +213,75 @@ public class TemplateEngineTest {
     }
 
 
+    @Test
+    public void testDataModelIsNotCopiedOrModified(){
+        Map<String, Object> map = new HashMap<>();
+        map.put("name", "  Abhijeet ");
+        map.put("trim", "shadowed by the built-in");
+        assertEquals(templateEngine.generate("${trim(name)}-<#list .data_model?keys?sort as k>${k},</#list>", map).split("-")[0], "Abhijeet");
+        assertEquals(templateEngine.generate("${missing!'none'}", map), "none");
+        assertEquals(map.size(), 2);
+    }
+
+    @Test
+    public void testGenerateToStructure(){
+        Map<String, Object> map = new HashMap<>();
+        map.put("httpMethod", "PUT");
+        map.put("list", Arrays.asList("a", "b"));
+        assertEquals(templateEngine.generateToMap(str, map).get("httpMethod"), "PUT");
+        assertEquals(templateEngine.generate(str, map, SerDe.JSON, Map.class).get("url"), "u");
+        List<Map<String, Object>> list = templateEngine.generateToListOfMap("[<#list list as e>{\"v\" : \"${e}\"}<#sep>,</#list>]", map);
+        assertEquals(list.size(), 2);
+        assertEquals(list.get(1).get("v"), "b");
+    }
+
+    @Test
+    public void testPlaceholderFastPath(){
+        Map<String, Object> page = new HashMap<>();
+        page.put("offset", 100);
+        page.put("limit", 50L);
+        Map<String, Object> map = new HashMap<>();
+        map.put("page", page);
+        map.put("name", "x");
+        map.put("ratio", 1.0);
+        map.put("flag", true);
+        assertEquals(templateEngine.generate("offset=${page.offset}&limit=${ page.limit }&name=${name}", map), "offset=100&limit=50&name=x");
+        assertEquals(templateEngine.generate("no placeholders here", map), "no placeholders here");
+        // values the fast path does not format itself go through FreeMarker
+        assertEquals(templateEngine.generate("${ratio}", map), "1");
+        assertEquals(templateEngine.generate("${flag?c}", map), "true");
+        Assert.assertThrows(RuntimeException.class, () -> templateEngine.generate("${page.missing}", map));
+        Assert.assertThrows(RuntimeException.class, () -> templateEngine.generate("${flag}", map));
+    }
+
+    @Test
+    public void testEngineSelection(){
+        Map<String, Object> map = new HashMap<>();
+        map.put("ratio", 1.0);
+        assertEquals(templateEngine.generate(TemplateEngine.withEngine(PlaceholderTemplateEngineProvider.NAME, "r=${ratio}"), map), "r=1.0");
+        assertEquals(templateEngine.generate("<#-- engine: freemarker -->\nr=${ratio}", map), "r=1");
+        Assert.assertThrows(IllegalArgumentException.class, () -> templateEngine.generate(TemplateEngine.withEngine(PlaceholderTemplateEngineProvider.NAME, "<#if true>x</#if>"), map));
+        Assert.assertThrows(IllegalArgumentException.class, () -> templateEngine.generate(TemplateEngine.withEngine("unknown", "x"), map));
+
+        templateEngine.register(new TemplateEngineProvider() {
+            @Override
+            public String getName() {
+                return "upper";
+            }
+
+            @Override
+            public CompiledTemplate compile(String templateSource) {
+                return (datapoints, writer) -> writer.write(templateSource.toUpperCase());
+            }
+        });
+        try {
+            assertEquals(templateEngine.generate(TemplateEngine.withEngine("upper", "abc"), map), "ABC");
+        } finally {
+            templateEngine.unregister("upper");
+        }
+        Assert.assertThrows(IllegalArgumentException.class, () -> templateEngine.generate(TemplateEngine.withEngine("upper", "abc"), map));
+    }
+
     @Test
     public void testThymeleaf(){
         Map<String, Object> map = new HashMap<>();
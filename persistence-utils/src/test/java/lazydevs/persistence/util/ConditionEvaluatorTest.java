@@ -5,6 +5,7 @@ import org.testng.annotations.*;
 import org.testng.Assert;
 
 import java.util.*;
+import java.util.function.Predicate;
 
 import static lazydevs.persistence.util.ConditionEvaluator.*;
 
@@ -108,6 +109,13 @@ public class ConditionEvaluatorTest {
         Assert.assertEquals(result, expected, description);
     }
 
+    @Test(dataProvider = "singleConditionTests")
+    public void testCompiledSingleCondition(String field, Operator operator, Object value,
+                                            boolean expected, String description) {
+        Condition condition = new Condition(field, operator, value);
+        Assert.assertEquals(ConditionEvaluator.compile(condition).test(testData), expected, description);
+    }
+
     @DataProvider(name = "multipleConditionTests")
     public Object[][] multipleConditionTestData() {
         return new Object[][] {
@@ -216,6 +224,99 @@ public class ConditionEvaluatorTest {
         Assert.assertEquals(result, expected, description);
     }
 
+    @Test(dataProvider = "jsonTestCases")
+    public void testCompiledRequest(String json, boolean expected, String description) throws Exception {
+        ConditionRequest request = objectMapper.readValue(json, ConditionRequest.class);
+        Assert.assertEquals(request.compile().test(testData), expected, description);
+    }
+
+    @Test
+    public void testCompiledRequestMatchesEvaluate() {
+        Assert.assertFalse(new ConditionRequest().compile().test(testData));
+        Assert.assertTrue(ConditionEvaluator.compile(new Condition("count", Operator.IN, Arrays.asList(41, 42))).test(testData));
+        Assert.assertFalse(ConditionEvaluator.compile(new Condition("count", Operator.NOT_IN, new HashSet<>(Arrays.asList(42)))).test(testData));
+        Assert.assertTrue(ConditionEvaluator.compile(new Condition("Response.Error.ErrorMessage", Operator.REGEX_MATCH, "Internal.*")).test(testData));
+        Assert.assertTrue(ConditionEvaluator.compile(new Condition("count", Operator.EQUALS, "42")).test(testData));
+        Assert.expectThrows(IllegalArgumentException.class,
+                () -> ConditionEvaluator.compile(new Condition("status", Operator.GREATER_THAN, "error")).test(testData));
+        Assert.expectThrows(IllegalArgumentException.class,
+                () -> ConditionEvaluator.compile(new Condition("status", Operator.GREATER_THAN, 1)).test(testData));
+        Assert.expectThrows(NullPointerException.class,
+                () -> ConditionEvaluator.compile(new Condition("status", Operator.EXISTS, null)).test(null));
+    }
+
+    @Test
+    public void testBatchEvaluation() {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (int i = 0; i < 3 * ConditionEvaluator.PARALLEL_THRESHOLD + 7; i++) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("id", i);
+            row.put("status", i % 10 == 0 ? "error" : "ok");
+            rows.add(row);
+        }
+        ConditionRequest request = new ConditionRequest();
+        request.setConditions(Arrays.asList(new Condition("id", Operator.GREATER_THAN_OR_EQUAL, 0), new Condition("status", Operator.EQUALS, "error")));
+        request.setLogic(LogicalOperator.AND);
+        Predicate<Map<String, Object>> predicate = request.compile();
+
+        BitSet matches = ConditionEvaluator.evaluate(predicate, rows);
+        for (int i = 0; i < rows.size(); i++) {
+            Assert.assertEquals(matches.get(i), request.evaluate(rows.get(i)), "row " + i);
+        }
+        List<Map<String, Object>> filtered = ConditionEvaluator.filter(predicate, rows);
+        Assert.assertEquals(filtered.size(), (rows.size() + 9) / 10);
+        Assert.assertEquals(filtered.get(1).get("id"), 10);
+        Assert.assertEquals(ConditionEvaluator.evaluate(predicate, new LinkedList<>(rows.subList(0, 20))), matches.get(0, 20));
+        Assert.assertSame(ConditionEvaluator.filter(row -> true, rows), rows);
+    }
+
+    @Test
+    public void testAdaptiveJunctionRunsTheMostDecisiveTermFirst() {
+        List<Predicate<Map<String, Object>>> terms = Arrays.asList(
+                row -> true,
+                row -> (Integer) row.get("count") > 100);
+        AdaptiveJunction and = new AdaptiveJunction(true, terms);
+        for (int i = 0; i < AdaptiveJunction.REORDER_INTERVAL; i++) {
+            Assert.assertFalse(and.test(testData));
+        }
+        Assert.assertEquals(and.getOrder(), new int[]{1, 0});
+        AdaptiveJunction or = new AdaptiveJunction(false, terms);
+        for (int i = 0; i < AdaptiveJunction.REORDER_INTERVAL; i++) {
+            Assert.assertTrue(or.test(testData));
+        }
+        Assert.assertEquals(or.getOrder(), new int[]{0, 1});
+    }
+
+    @Test
+    public void testAdaptiveJunctionMergesTheCountsOfEveryThread() {
+        AdaptiveJunction and = new AdaptiveJunction(true, Arrays.asList(
+                row -> true,
+                row -> (Integer) row.get("count") > 100));
+        List<Map<String, Object>> rows = new ArrayList<>(Collections.nCopies(4 * ConditionEvaluator.PARALLEL_THRESHOLD, testData));
+        Assert.assertEquals(ConditionEvaluator.evaluate(and, rows).cardinality(), 0);
+        Assert.assertEquals(and.getOrder(), new int[]{1, 0});
+    }
+
+    @Test
+    public void testTermsThatCanThrowKeepTheirOrder() {
+        ConditionRequest request = new ConditionRequest();
+        request.setConditions(Arrays.asList(new Condition("type", Operator.EQUALS, "num"), new Condition("value", Operator.GREATER_THAN, 5)));
+        request.setLogic(LogicalOperator.AND);
+        Predicate<Map<String, Object>> predicate = request.compile();
+        Map<String, Object> number = new HashMap<>();
+        number.put("type", "num");
+        number.put("value", 1);
+        Map<String, Object> text = new HashMap<>();
+        text.put("type", "text");
+        text.put("value", "x");
+        // the comparison decides every row first, a reordering junction would run it first for the text row too
+        for (int i = 0; i < 4 * AdaptiveJunction.REORDER_INTERVAL; i++) {
+            Assert.assertFalse(predicate.test(number));
+        }
+        Assert.assertFalse(predicate.test(text));
+        Assert.assertFalse(request.evaluate(text));
+    }
+
     // Edge cases and error handling
     @Test
     public void testEmptyConditionsReturnsFalse() {
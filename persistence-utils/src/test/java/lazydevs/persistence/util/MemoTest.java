@@ -0,0 +1,36 @@
+package lazydevs.persistence.util;
+
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+/**
+ * @author Abhijeet Rai
+ */
+public class MemoTest {
+
+    @Test
+    public void testComputedAgainOnlyForAnotherKey() {
+        List<String> computed = new ArrayList<>();
+        Memo<String, Integer> memo = new Memo<>(key -> {
+            computed.add(key);
+            return null == key ? null : key.length();
+        });
+        String first = new String("abc");
+        String second = new String("abc");
+
+        assertEquals(memo.get(first), Integer.valueOf(3));
+        assertEquals(memo.get(first), Integer.valueOf(3));
+        // equal, but not the same key
+        assertEquals(memo.get(second), Integer.valueOf(3));
+        assertNull(memo.get(null));
+        assertNull(memo.get(null));
+
+        assertEquals(computed, Arrays.asList("abc", "abc", null));
+    }
+}
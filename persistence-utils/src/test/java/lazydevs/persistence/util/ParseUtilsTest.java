@@ -995,6 +995,34 @@ public class ParseUtilsTest {
         assertEquals(ParseUtils.getOrDefault(testData, "nonExistent", "default"), "default");
     }
 
+    // ========== COMPILED PATH EXPRESSIONS ==========
+
+    @Test
+    public void testCompiledPathExpression() {
+        String path = "users[role:EQUALS:admin].name";
+        PathExpression expression = PathExpression.compile(path);
+        assertSame(PathExpression.compile(path), expression);
+        assertEquals(expression.get(testData), ParseUtils.get(testData, path));
+        assertEquals(expression.get(testData), expression.get(testData));
+        assertEquals(PathExpression.compile("users[1].name").get(testData), ParseUtils.get(testData, "users[1].name"));
+        assertNull(PathExpression.compile("users[99999999999]").get(testData));
+        assertNull(PathExpression.compile("users[-1]").get(testData));
+        assertNull(expression.get(null));
+    }
+
+    @Test
+    public void testFilterExpressionIsParsedOnce() {
+        String conditions = "(role:EQUALS:admin OR role:EQUALS:moderator) AND isActive:EQUALS:true";
+        FilterExpression filter = FilterExpression.compile(conditions);
+        assertSame(FilterExpression.compile(conditions), filter);
+        List<Map<String, Object>> users = (List<Map<String, Object>>) testData.get("users");
+        List<Map<String, Object>> expected = users.stream().filter(filter).collect(Collectors.toList());
+        assertEquals(ParseUtils.get(testData, "users[" + conditions + "]"), expected);
+        assertFalse(FilterExpression.compile("role:NO_SUCH_OPERATOR:admin").test(users.get(0)));
+        assertFalse(FilterExpression.compile("   ").test(users.get(0)));
+        assertTrue(FilterExpression.compile("containsKey='role'").test(users.get(0)));
+    }
+
     // ========== FINAL VALIDATION ==========
 
     @Test